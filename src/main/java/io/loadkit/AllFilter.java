@@ -9,7 +9,7 @@ import java.util.Collection;
  * @author Payne 646742615@qq.com
  * 2018/12/3 10:28
  */
-public class AllFilter extends MixFilter implements Filter {
+public class AllFilter extends MixFilter implements PathFilter, Filter {
 
     public AllFilter(Filter... filters) {
         super(filters);
@@ -20,9 +20,18 @@ public class AllFilter extends MixFilter implements Filter {
     }
 
     public boolean filtrate(String name, URL url) {
-        Filter[] filters = this.filters.toArray(new Filter[0]);
-        for (Filter filter : filters) {
-            if (!filter.filtrate(name, url)) {
+        return !find(snapshot(), name, url, false);
+    }
+
+    /**
+     * 判断是否需要进入指定目录继续加载，只要有一个子过滤器是{@link PathFilter}而且不允许进入该目录，该目录下就不可能有资源满足所有子过滤器，所以跳过该目录。
+     *
+     * @param directory 目录名称，以"/"结尾
+     * @return true: 进入该目录  false: 跳过整个目录
+     */
+    public boolean descend(String directory) {
+        for (Filter filter : snapshot()) {
+            if (filter instanceof PathFilter && !((PathFilter) filter).descend(directory)) {
                 return false;
             }
         }
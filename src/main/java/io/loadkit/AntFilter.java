@@ -1,16 +1,25 @@
 package io.loadkit;
 
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.regex.Pattern;
+
 /**
- * ANT风格路径过滤器
+ * ANT风格路径过滤器，匹配由{@link AntMatcher}完成，等价的正则表达式只在调用{@link AntFilter#getPattern()}时才转换和编译。
  *
  * @author Payne 646742615@qq.com
  * 2018/12/2 11:40
  */
-public class AntFilter extends RegexFilter implements Filter {
+public class AntFilter extends RegexFilter implements NameFilter, PathFilter, ByteNameFilter, Filter {
     private static final String[] SYMBOLS = {"\\", "$", "(", ")", "+", ".", "[", "]", "^", "{", "}", "|"};
 
+    private final String ant;
+    private final AntMatcher matcher;
+    private volatile Pattern pattern;
+
     public AntFilter(String ant) {
-        super(convert(ant));
+        this.matcher = new AntMatcher(ant);
+        this.ant = ant;
     }
 
     /**
@@ -31,4 +40,74 @@ public class AntFilter extends RegexFilter implements Filter {
         return regex;
     }
 
+    /**
+     * 获取与ANT风格路径表达式等价的正则表达式，第一次调用时才转换和编译，过滤本身并不使用该正则表达式
+     *
+     * @return 正则表达式
+     */
+    @Override
+    public Pattern getPattern() {
+        Pattern pattern = this.pattern;
+        if (pattern == null) {
+            this.pattern = pattern = Pattern.compile(convert(ant));
+        }
+        return pattern;
+    }
+
+    /**
+     * 获取ANT风格路径匹配器
+     *
+     * @return ANT风格路径匹配器
+     */
+    public AntMatcher getMatcher() {
+        return matcher;
+    }
+
+    @Override
+    public boolean filtrate(String name, URL url) {
+        return filtrate(name);
+    }
+
+    @Override
+    public boolean filtrate(String name) {
+        return matcher.matches(name);
+    }
+
+    /**
+     * 判断以指定目录为前缀的资源是否有可能满足过滤条件，资源加载器据此跳过不可能匹配的整个子目录。
+     *
+     * @param directory 目录名称，以"/"结尾
+     * @return true: 有可能满足  false: 不可能满足
+     */
+    public boolean descend(String directory) {
+        return matcher.descend(directory);
+    }
+
+    /**
+     * 根据资源名称的原始UTF-8字节判断是否有可能满足过滤条件，资源加载器据此跳过不满足条件的条目而不必解码其名称。
+     *
+     * @param buffer 缓冲区
+     * @param offset 资源名称在缓冲区中的起始位置
+     * @param length 资源名称的字节数
+     * @return true: 有可能满足  false: 一定不满足
+     */
+    public boolean accept(ByteBuffer buffer, int offset, int length) {
+        return matcher.accept(buffer, offset, length);
+    }
+
+    /**
+     * 相同的ANT风格路径表达式的过滤器是相等的，缓存资源加载器据此识别相同的加载请求
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return matcher.equals(((AntFilter) o).matcher);
+    }
+
+    @Override
+    public int hashCode() {
+        return matcher.hashCode();
+    }
+
 }
@@ -2,6 +2,7 @@ package io.loadkit;
 
 import java.io.IOException;
 import java.util.Enumeration;
+import java.util.stream.Stream;
 
 /**
  * ANT风格路径资源加载器
@@ -20,30 +21,79 @@ public class AntLoader extends PatternLoader implements Loader {
     }
 
     public AntLoader(Loader delegate) {
-        super(delegate);
+        super(delegate, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param delegate  委派的资源加载器
+     * @param cacheSize 加载计划缓存的容量，0代表不缓存
+     */
+    public AntLoader(Loader delegate, int cacheSize) {
+        super(delegate, cacheSize);
     }
 
     @Override
     public Enumeration<Resource> load(String pattern, boolean recursively, Filter filter) throws IOException {
-        if (Math.max(pattern.indexOf('*'), pattern.indexOf('?')) < 0) {
+        if (!wildcard(pattern)) {
             return delegate.load(pattern, recursively, filter);
         } else {
             return super.load(pattern, recursively, filter);
         }
     }
 
+    @Override
+    public Stream<Resource> stream(String pattern, boolean recursively, Filter filter) throws IOException {
+        if (!wildcard(pattern)) {
+            return delegate.stream(pattern, recursively, filter);
+        } else {
+            return super.stream(pattern, recursively, filter);
+        }
+    }
+
+    /**
+     * 根据ANT风格路径表达式推导出资源根路径，即第一个通配符之前的目录，不包含通配符的表达式本身就是资源路径。
+     *
+     * @param ant ANT风格路径表达式
+     * @return 资源根路径
+     */
     protected String path(String ant) {
+        if (!wildcard(ant)) {
+            return ant;
+        }
         int index = Integer.MAX_VALUE - 1;
         if (ant.contains("*") && ant.indexOf('*') < index) index = ant.indexOf('*');
         if (ant.contains("?") && ant.indexOf('?') < index) index = ant.indexOf('?');
         return ant.substring(0, ant.lastIndexOf('/', index) + 1);
     }
 
+    /**
+     * 根据ANT风格路径表达式推导出是否需要递归加载，由于"?"和"**"都可以匹配"/"，
+     * 所以只有当根路径之后的部分既不包含"/"也不包含"?"和"**"时，例如"io/loadkit/*.class"，才不需要递归加载。
+     * 需要递归加载时，{@link AntFilter#descend(String)}会让资源加载器跳过不可能匹配的子目录，不包含通配符的表达式则不递归加载。
+     *
+     * @param ant ANT风格路径表达式
+     * @return 是否需要递归加载
+     */
     protected boolean recursively(String ant) {
-        return true;
+        if (!wildcard(ant)) {
+            return false;
+        }
+        String pattern = ant.substring(path(ant).length());
+        while (pattern.endsWith("/")) pattern = pattern.substring(0, pattern.length() - 1);
+        return pattern.indexOf('/') >= 0 || pattern.indexOf('?') >= 0 || pattern.contains("**");
     }
 
+    /**
+     * 根据ANT风格路径表达式推导出资源过滤器，不包含通配符的表达式直接按资源路径加载，不需要过滤。
+     *
+     * @param ant ANT风格路径表达式
+     * @return 资源过滤器
+     */
     protected Filter filter(String ant) {
-        return new AntFilter(ant);
+        return wildcard(ant) ? new AntFilter(ant) : Filters.ALWAYS;
+    }
+
+    private static boolean wildcard(String ant) {
+        return Math.max(ant.indexOf('*'), ant.indexOf('?')) >= 0;
     }
 }
@@ -0,0 +1,496 @@
+package io.loadkit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ANT风格路径匹配器，构造时将ANT风格路径表达式一次性拆分成字面量、"?"、"*"、"**"和"**&#47;"几种片段，
+ * 匹配时逐个片段比较资源名称，整个过程不创建任何对象，而且只在通配片段处回溯。
+ * 匹配语义与ANT风格路径表达式原先转换成的正则表达式保持一致：
+ * <p>"?" 匹配任意一个除换行符之外的字符；</p>
+ * <p>"*" 匹配任意个除"/"之外的字符；</p>
+ * <p>"**" 匹配任意个除换行符之外的字符；</p>
+ * <p>"**&#47;" 匹配空串或任意个除换行符之外的以"/"结尾的字符；</p>
+ * <p>表达式开头和结尾的"/"会被忽略，其他字符都按字面量匹配。</p>
+ * 另外还可以通过{@link AntMatcher#accept(ByteBuffer, int, int)}直接在资源名称的原始UTF-8字节上做初步判断。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 11:40
+ */
+public class AntMatcher {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final int LITERAL = 0;
+    private static final int ONE = 1;
+    private static final int STAR = 2;
+    private static final int DOUBLE_STAR = 3;
+    private static final int DOUBLE_STAR_SLASH = 4;
+
+    private final String ant;
+    private final int[] types;
+    private final String[] literals;
+    /**
+     * 从该片段开始的剩余片段至少需要匹配的字符数
+     */
+    private final int[] minimums;
+    /**
+     * 从该片段开始的剩余片段是否一定不会匹配"/"
+     */
+    private final boolean[] slashless;
+    /**
+     * 开头、中间和结尾的字面量的UTF-8字节，用于字节上的初步判断
+     */
+    private final byte[] head;
+    private final byte[][] middles;
+    private final byte[] tail;
+    /**
+     * 匹配的资源名称至少需要的字节数以及"/"的数量范围，没有"**"片段时"/"只能来自字面量和"?"，最大数量为-1代表不限
+     */
+    private final int bytes;
+    private final int minSlashes;
+    private final int maxSlashes;
+
+    public AntMatcher(String ant) {
+        if (ant == null) {
+            throw new IllegalArgumentException("ant must not be null");
+        }
+        this.ant = ant;
+        List<Integer> types = new ArrayList<Integer>();
+        List<String> literals = new ArrayList<String>();
+        tokenize(ant, types, literals);
+        int size = types.size();
+        this.types = new int[size];
+        this.literals = literals.toArray(new String[size]);
+        this.minimums = new int[size + 1];
+        this.slashless = new boolean[size + 1];
+        this.slashless[size] = true;
+        for (int i = size - 1; i >= 0; i--) {
+            int type = types.get(i);
+            this.types[i] = type;
+            this.minimums[i] = minimums[i + 1] + (type == LITERAL ? this.literals[i].length() : type == ONE ? 1 : 0);
+            this.slashless[i] = slashless[i + 1] && (type == STAR || type == LITERAL && this.literals[i].indexOf('/') < 0);
+        }
+        List<byte[]> middles = new ArrayList<byte[]>();
+        int bytes = 0;
+        int slashes = 0;
+        int ones = 0;
+        boolean bounded = true;
+        for (int i = 0; i < size; i++) {
+            if (this.types[i] == LITERAL) {
+                String literal = this.literals[i];
+                byte[] encoded = literal.getBytes(UTF_8);
+                if (i > 0 && i < size - 1) middles.add(encoded);
+                bytes += encoded.length;
+                for (int j = literal.indexOf('/'); j >= 0; j = literal.indexOf('/', j + 1)) slashes++;
+            } else if (this.types[i] == ONE) {
+                bytes++;
+                ones++;
+            } else if (this.types[i] != STAR) {
+                bounded = false;
+            }
+        }
+        this.head = size > 0 && this.types[0] == LITERAL ? this.literals[0].getBytes(UTF_8) : EMPTY;
+        this.middles = middles.toArray(new byte[middles.size()][]);
+        this.tail = size > 1 && this.types[size - 1] == LITERAL ? this.literals[size - 1].getBytes(UTF_8) : EMPTY;
+        this.bytes = bytes;
+        this.minSlashes = slashes;
+        this.maxSlashes = bounded ? slashes + ones : -1;
+    }
+
+    /**
+     * 将ANT风格路径表达式拆分成片段，先识别"**&#47;"再识别"**"最后识别"*"，与原先的正则表达式转换顺序一致，
+     * 最后去掉开头和结尾的字面量"/"。
+     */
+    private static void tokenize(String ant, List<Integer> types, List<String> literals) {
+        int length = ant.length();
+        int[] kinds = new int[length];
+        for (int i = 0; i < length; i++) kinds[i] = ant.charAt(i) == '?' ? ONE : LITERAL;
+        for (int i = ant.indexOf("**/"); i >= 0; i = ant.indexOf("**/", i + 3)) {
+            kinds[i] = kinds[i + 1] = kinds[i + 2] = DOUBLE_STAR_SLASH;
+        }
+        for (int i = 0; i < length; i++) {
+            if (ant.charAt(i) != '*' || kinds[i] != LITERAL) {
+                continue;
+            }
+            if (i + 1 < length && ant.charAt(i + 1) == '*' && kinds[i + 1] == LITERAL) {
+                kinds[i] = kinds[i + 1] = DOUBLE_STAR;
+                i++;
+            } else {
+                kinds[i] = STAR;
+            }
+        }
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int kind = kinds[i];
+            if (kind == LITERAL) {
+                literal.append(ant.charAt(i));
+                continue;
+            }
+            if (literal.length() > 0) {
+                types.add(LITERAL);
+                literals.add(literal.toString());
+                literal.setLength(0);
+            }
+            types.add(kind);
+            literals.add(null);
+            if (kind == DOUBLE_STAR) i += 1;
+            if (kind == DOUBLE_STAR_SLASH) i += 2;
+        }
+        if (literal.length() > 0) {
+            types.add(LITERAL);
+            literals.add(literal.toString());
+        }
+        if (!types.isEmpty() && types.get(0) == LITERAL) {
+            String first = literals.get(0);
+            int start = 0;
+            while (start < first.length() && first.charAt(start) == '/') start++;
+            if (start == first.length()) {
+                types.remove(0);
+                literals.remove(0);
+            } else {
+                literals.set(0, first.substring(start));
+            }
+        }
+        if (!types.isEmpty() && types.get(types.size() - 1) == LITERAL) {
+            String last = literals.get(literals.size() - 1);
+            int end = last.length();
+            while (end > 0 && last.charAt(end - 1) == '/') end--;
+            if (end == 0) {
+                types.remove(types.size() - 1);
+                literals.remove(literals.size() - 1);
+            } else {
+                literals.set(literals.size() - 1, last.substring(0, end));
+            }
+        }
+    }
+
+    /**
+     * 判断资源名称是否匹配ANT风格路径表达式
+     *
+     * @param name 资源名称
+     * @return true: 匹配  false: 不匹配
+     */
+    public boolean matches(String name) {
+        int length = name.length();
+        int size = types.length;
+        if (length < minimums[0]) {
+            return false;
+        }
+        if (size > 0 && types[0] == LITERAL && !name.startsWith(literals[0])) {
+            return false;
+        }
+        if (size > 1 && types[size - 1] == LITERAL && !name.endsWith(literals[size - 1])) {
+            return false;
+        }
+        return match(name, 0, 0, terminated(name, 0) < length);
+    }
+
+    /**
+     * 根据资源名称的原始UTF-8字节判断是否有可能匹配，依次比较字节数、开头和结尾的字面量、中间的字面量是否按顺序出现以及"/"的数量，
+     * 由于UTF-8编码中字面量的字节序列只会出现在相同字符的位置，而"/"也只会以单个字节出现，所以这些判断与解码之后完全一致。
+     * 只有字面量的表达式可以据此做出精确判断，其他表达式只会在确定不可能匹配时才返回false，通过之后还需要{@link AntMatcher#matches(String)}。
+     *
+     * @param buffer 缓冲区，只使用绝对位置的读取方法
+     * @param offset 资源名称在缓冲区中的起始位置
+     * @param length 资源名称的字节数
+     * @return true: 有可能匹配  false: 不可能匹配
+     */
+    public boolean accept(ByteBuffer buffer, int offset, int length) {
+        int size = types.length;
+        if (size == 0) {
+            return length == 0;
+        }
+        if (length < bytes) {
+            return false;
+        }
+        if (size == 1 && types[0] == LITERAL && length != bytes) {
+            return false;
+        }
+        for (int i = 0; i < head.length; i++) {
+            if (buffer.get(offset + i) != head[i]) {
+                return false;
+            }
+        }
+        for (int i = 0, from = offset + length - tail.length; i < tail.length; i++) {
+            if (buffer.get(from + i) != tail[i]) {
+                return false;
+            }
+        }
+        if (size == 1 && types[0] == LITERAL) {
+            return true;
+        }
+        // 中间的字面量必然按顺序互不重叠地出现在开头和结尾的字面量之间，每个都取最靠前的位置即可
+        int from = offset + head.length;
+        int to = offset + length - tail.length;
+        for (byte[] middle : middles) {
+            int at = indexOf(buffer, middle, from, to);
+            if (at < 0) {
+                return false;
+            }
+            from = at + middle.length;
+        }
+        if (minSlashes == 0 && maxSlashes < 0) {
+            return true;
+        }
+        int slashes = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (buffer.get(i) == '/' && ++slashes > maxSlashes && maxSlashes >= 0) {
+                return false;
+            }
+        }
+        return slashes >= minSlashes;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] bytes, int from, int to) {
+        for (int i = from, last = to - bytes.length; i <= last; i++) {
+            int j = 0;
+            while (j < bytes.length && buffer.get(i + j) == bytes[j]) j++;
+            if (j == bytes.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean match(String name, int token, int pos, boolean lines) {
+        int length = name.length();
+        int size = types.length;
+        while (token < size) {
+            if (length - pos < minimums[token]) {
+                return false;
+            }
+            switch (types[token]) {
+                case LITERAL: {
+                    String literal = literals[token];
+                    if (!name.startsWith(literal, pos)) {
+                        return false;
+                    }
+                    pos += literal.length();
+                    token++;
+                    break;
+                }
+                case ONE: {
+                    if (pos >= length || terminator(name.charAt(pos))) {
+                        return false;
+                    }
+                    pos += Character.charCount(name.codePointAt(pos));
+                    token++;
+                    break;
+                }
+                case STAR: {
+                    int bound = name.indexOf('/', pos);
+                    return span(name, token, pos, bound < 0 ? length : bound, lines);
+                }
+                case DOUBLE_STAR: {
+                    return span(name, token, pos, lines ? terminated(name, pos) : length, lines);
+                }
+                case DOUBLE_STAR_SLASH: {
+                    int bound = lines ? terminated(name, pos) : length;
+                    if (slashless[token + 1]) {
+                        // 剩余片段不会匹配"/"，所以只能匹配到最后一个"/"为止
+                        int slash = name.lastIndexOf('/');
+                        if (slash < pos) {
+                            return match(name, token + 1, pos, lines);
+                        }
+                        return slash < bound && match(name, token + 1, slash + 1, lines);
+                    }
+                    if (match(name, token + 1, pos, lines)) {
+                        return true;
+                    }
+                    for (int slash = name.indexOf('/', pos); slash >= 0 && slash < bound; slash = name.indexOf('/', slash + 1)) {
+                        if (match(name, token + 1, slash + 1, lines)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                default:
+                    throw new IllegalStateException("unknown token type " + types[token]);
+            }
+        }
+        return pos == length;
+    }
+
+    /**
+     * 通配片段可以匹配从pos开始直到bound为止（包含bound）的任意位置，依次尝试剩余片段的匹配，
+     * 如果下一个片段是字面量则直接跳到字面量出现的位置。
+     */
+    private boolean span(String name, int token, int pos, int bound, boolean lines) {
+        int length = name.length();
+        int next = token + 1;
+        if (next == types.length) {
+            return bound == length;
+        }
+        if (types[next] == LITERAL) {
+            String literal = literals[next];
+            if (next + 1 == types.length) {
+                int end = length - literal.length();
+                return end >= pos && end <= bound && name.startsWith(literal, end);
+            }
+            if (types[token] == STAR && literal.charAt(0) == '/') {
+                // "*"不会匹配"/"，所以以"/"开头的字面量只能出现在下一个"/"的位置
+                return bound < length && name.startsWith(literal, bound) && match(name, next + 1, bound + literal.length(), lines);
+            }
+            for (int i = name.indexOf(literal, pos); i >= 0 && i <= bound; i = name.indexOf(literal, i + 1)) {
+                if (match(name, next + 1, i + literal.length(), lines)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (int i = pos; i <= bound; i += i < length ? Character.charCount(name.codePointAt(i)) : 1) {
+            if (match(name, next, i, lines)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断以指定目录为前缀的资源名称是否有可能匹配，即是否有必要进入该目录继续查找，
+     * 例如"io/loadkit/*.class"不可能匹配"io/loadkit/impl/"目录下的任何资源，而"io/**&#47;*.class"则有可能。
+     * 该方法只会在确定不可能匹配时才返回false。
+     *
+     * @param directory 目录名称，以"/"结尾
+     * @return true: 有可能匹配  false: 不可能匹配
+     */
+    public boolean descend(String directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must not be null");
+        }
+        return partial(directory, 0, 0, terminated(directory, 0) < directory.length());
+    }
+
+    /**
+     * 判断资源名称从pos开始的剩余部分能否被从token开始的剩余片段匹配成更长的字符串的前缀
+     */
+    private boolean partial(String name, int token, int pos, boolean lines) {
+        int length = name.length();
+        int size = types.length;
+        while (token < size) {
+            if (pos == length) {
+                return true;
+            }
+            switch (types[token]) {
+                case LITERAL: {
+                    String literal = literals[token];
+                    int n = Math.min(literal.length(), length - pos);
+                    if (!name.regionMatches(pos, literal, 0, n)) {
+                        return false;
+                    }
+                    if (n < literal.length()) {
+                        return true;
+                    }
+                    pos += n;
+                    token++;
+                    break;
+                }
+                case ONE: {
+                    if (terminator(name.charAt(pos))) {
+                        return false;
+                    }
+                    pos += Character.charCount(name.codePointAt(pos));
+                    token++;
+                    break;
+                }
+                case STAR:
+                case DOUBLE_STAR: {
+                    int bound = types[token] == STAR ? name.indexOf('/', pos) : lines ? terminated(name, pos) : length;
+                    if (bound < 0 || bound == length) {
+                        return true;
+                    }
+                    for (int i = pos; i <= bound; i += Character.charCount(name.codePointAt(i))) {
+                        if (partial(name, token + 1, i, lines)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                case DOUBLE_STAR_SLASH: {
+                    int bound = lines ? terminated(name, pos) : length;
+                    if (bound == length || partial(name, token + 1, pos, lines)) {
+                        return true;
+                    }
+                    for (int slash = name.indexOf('/', pos); slash >= 0 && slash < bound; slash = name.indexOf('/', slash + 1)) {
+                        if (partial(name, token + 1, slash + 1, lines)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                default:
+                    throw new IllegalStateException("unknown token type " + types[token]);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从指定位置开始查找第一个换行符的位置
+     */
+    private static int terminated(String name, int from) {
+        int length = name.length();
+        for (int i = from; i < length; i++) {
+            if (terminator(name.charAt(i))) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static boolean terminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * 获取匹配的资源名称中必然包含的最长字面量，可以作为多模式匹配时的预筛选条件
+     *
+     * @return 最长的字面量片段，表达式中没有字面量片段时返回空字符串
+     */
+    public String literal() {
+        String literal = "";
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == LITERAL && literals[i].length() > literal.length()) literal = literals[i];
+        }
+        return literal;
+    }
+
+    /**
+     * 获取表达式开头的字面量，匹配的资源名称必然以该字面量开头
+     *
+     * @return 开头的字面量片段，表达式不以字面量开头时返回空字符串
+     */
+    public String prefix() {
+        return types.length > 0 && types[0] == LITERAL ? literals[0] : "";
+    }
+
+    /**
+     * 获取表达式结尾的字面量，匹配的资源名称必然以该字面量结尾
+     *
+     * @return 结尾的字面量片段，表达式不以字面量结尾时返回空字符串
+     */
+    public String suffix() {
+        return types.length > 0 && types[types.length - 1] == LITERAL ? literals[types.length - 1] : "";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return ant.equals(((AntMatcher) o).ant);
+    }
+
+    @Override
+    public int hashCode() {
+        return ant.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return ant;
+    }
+
+}
@@ -9,7 +9,11 @@ import java.util.Collection;
  * @author Payne 646742615@qq.com
  * 2018/12/3 10:47
  */
-public class AnyFilter extends MixFilter implements Filter {
+public class AnyFilter extends MixFilter implements PathFilter, Filter {
+    /**
+     * 子过滤器编译之后的多模式匹配器，子过滤器发生增删即快照变化时作废，下次过滤时重新编译
+     */
+    private volatile Compiled compiled;
 
     public AnyFilter(Filter... filters) {
         super(filters);
@@ -20,17 +24,63 @@ public class AnyFilter extends MixFilter implements Filter {
     }
 
     public boolean filtrate(String name, URL url) {
-        Filter[] filters = this.filters.toArray(new Filter[0]);
-        for (Filter filter : filters) {
-            if (filter.filtrate(name, url)) {
+        Compiled compiled = compile();
+        if (compiled.matcher != null && compiled.matcher.matches(name)) {
+            return true;
+        }
+        return find(compiled.others, name, url, true);
+    }
+
+    /**
+     * 判断是否需要进入指定目录继续加载，只有当所有子过滤器都是{@link PathFilter}而且都不允许进入该目录时才跳过该目录，没有子过滤器时同样跳过，因为没有资源能满足。
+     *
+     * @param directory 目录名称，以"/"结尾
+     * @return true: 进入该目录  false: 跳过整个目录
+     */
+    public boolean descend(String directory) {
+        for (Filter filter : snapshot()) {
+            if (!(filter instanceof PathFilter) || ((PathFilter) filter).descend(directory)) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * 当可编译的子过滤器足够多时将其编译成{@link MultiMatcher}，否则所有子过滤器依然逐个判断
+     *
+     * @return 编译结果
+     */
+    private Compiled compile() {
+        Filter[] filters = snapshot();
+        Compiled compiled = this.compiled;
+        if (compiled == null || compiled.source != filters) {
+            if (MultiMatcher.worthwhile(filters)) {
+                MultiMatcher matcher = new MultiMatcher(filters);
+                compiled = new Compiled(filters, matcher, matcher.getOthers());
+            } else {
+                compiled = new Compiled(filters, null, filters);
+            }
+            this.compiled = compiled;
+        }
+        return compiled;
+    }
+
     public AnyFilter mix(Filter filter) {
         add(filter);
         return this;
     }
+
+    private static class Compiled {
+        private final Filter[] source;
+        private final MultiMatcher matcher;
+        private final Filter[] others;
+
+        Compiled(Filter[] source, MultiMatcher matcher, Filter[] others) {
+            this.source = source;
+            this.matcher = matcher;
+            this.others = others;
+        }
+    }
+
 }
@@ -0,0 +1,27 @@
+package io.loadkit;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 字节名称过滤器，过滤器可以额外实现该接口，直接在资源名称的原始UTF-8字节上做出初步判断，
+ * JAR包资源加载器在映射中央目录的模式下据此跳过不满足条件的条目，只有通过初步判断的条目名称才会被解码成字符串，
+ * 再交给过滤器本身的{@link Filter#filtrate(String, java.net.URL)}做最终判断。
+ * 实现该接口的过滤器必须保证：对于返回false的资源名称，过滤器本身也一定不会满足；返回true则不作任何保证。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 16:40
+ */
+public interface ByteNameFilter {
+
+    /**
+     * 判断原始字节表示的资源名称是否有可能满足过滤条件，实现只能使用绝对位置的读取方法，不能改变缓冲区的位置和界限，
+     * 因为缓冲区可能被多个线程共享。
+     *
+     * @param buffer 缓冲区
+     * @param offset 资源名称在缓冲区中的起始位置
+     * @param length 资源名称的字节数
+     * @return true: 有可能满足  false: 一定不满足
+     */
+    boolean accept(ByteBuffer buffer, int offset, int length);
+
+}
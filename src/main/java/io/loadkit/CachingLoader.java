@@ -0,0 +1,233 @@
+package io.loadkit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 缓存资源加载器，这是一个委派加载器，把委派的资源加载器的加载结果按照资源路径、是否递归加载以及过滤器缓存起来，
+ * 相同的加载请求直接返回缓存的资源列表而不再重新扫描。
+ * <p>1. 过滤器通过equals判断是否相同，{@link AntFilter}和{@link RegexFilter}按照表达式判断，其他过滤器按照各自的equals实现，
+ * 所以每次加载都新建的、没有实现equals的过滤器不会命中缓存。</p>
+ * <p>2. 缓存的条目数量有上限，超出时淘汰最久没有使用的条目，还可以设置条目的存活时间，过期之后重新加载，或者调用invalidate方法主动作废。</p>
+ * <p>3. 多个线程同时发起相同的加载请求时只有一个线程实际执行扫描，其他线程等待其结果，扫描失败的结果不会被缓存。</p>
+ * 缓存的是扫描完成之后的资源列表，所以返回的资源枚举器不再是惰性加载的。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 15:40
+ */
+public class CachingLoader extends DelegateLoader implements Loader {
+    /**
+     * 缺省的最大缓存条目数量
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final long ttl;
+    private final Map<Key, Cached> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CachingLoader(Loader delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES);
+    }
+
+    public CachingLoader(Loader delegate, int maxEntries) {
+        this(delegate, maxEntries, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 创建缓存资源加载器
+     *
+     * @param delegate   委派的资源加载器
+     * @param maxEntries 最大缓存条目数量，超出时淘汰最久没有使用的条目
+     * @param ttl        条目的存活时间，从开始扫描时算起，0代表永不过期
+     * @param unit       存活时间的单位
+     */
+    public CachingLoader(Loader delegate, final int maxEntries, long ttl, TimeUnit unit) {
+        super(delegate);
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        if (ttl < 0) {
+            throw new IllegalArgumentException("ttl must not be negative");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("unit must not be null");
+        }
+        this.ttl = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<Key, Cached>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Enumeration<Resource> load(String path, boolean recursively, Filter filter) throws IOException {
+        return Collections.enumeration(resources(path, recursively, filter));
+    }
+
+    @Override
+    public Stream<Resource> stream(String path, boolean recursively, Filter filter) throws IOException {
+        return resources(path, recursively, filter).stream();
+    }
+
+    /**
+     * 获取缓存的资源列表，没有缓存或者已经过期时由当前线程执行扫描，正在扫描时等待其结果。
+     *
+     * @param path        资源路径
+     * @param recursively 递归加载
+     * @param filter      过滤器
+     * @return 不可修改的资源列表
+     * @throws IOException I/O 异常
+     */
+    private List<Resource> resources(String path, boolean recursively, Filter filter) throws IOException {
+        final Key key = new Key(path, recursively, filter != null ? filter : Filters.ALWAYS);
+        long now = System.nanoTime();
+        Cached entry;
+        boolean owner = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null || entry.expired(now, ttl)) {
+                entry = new Cached(now, new Callable<List<Resource>>() {
+                    public List<Resource> call() throws IOException {
+                        List<Resource> resources = new ArrayList<Resource>();
+                        Enumeration<Resource> enumeration = delegate.load(key.path, key.recursively, key.filter);
+                        while (enumeration.hasMoreElements()) {
+                            resources.add(enumeration.nextElement());
+                        }
+                        return Collections.unmodifiableList(resources);
+                    }
+                });
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+        if (owner) {
+            misses.incrementAndGet();
+            entry.task.run();
+        } else {
+            hits.incrementAndGet();
+        }
+        try {
+            return entry.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            synchronized (entries) {
+                if (entries.get(key) == entry) entries.remove(key);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 作废指定资源路径的所有缓存条目，不论其递归加载以及过滤器参数
+     *
+     * @param path 资源路径
+     */
+    public void invalidate(String path) {
+        synchronized (entries) {
+            Iterator<Key> iterator = entries.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().path.equals(path)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 作废所有缓存条目
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * 获取缓存的命中次数，包括等待其他线程扫描结果的次数
+     *
+     * @return 命中次数
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * 获取缓存的未命中次数，即实际扫描的次数
+     *
+     * @return 未命中次数
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static class Key {
+        private final String path;
+        private final boolean recursively;
+        private final Filter filter;
+
+        Key(String path, boolean recursively, Filter filter) {
+            if (path == null) {
+                throw new IllegalArgumentException("path must not be null");
+            }
+            this.path = path;
+            this.recursively = recursively;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return recursively == that.recursively && path.equals(that.path) && filter.equals(that.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = path.hashCode();
+            result = 31 * result + (recursively ? 1 : 0);
+            result = 31 * result + filter.hashCode();
+            return result;
+        }
+    }
+
+    private static class Cached {
+        private final long created;
+        private final FutureTask<List<Resource>> task;
+
+        Cached(long created, Callable<List<Resource>> loading) {
+            this.created = created;
+            this.task = new FutureTask<List<Resource>>(loading);
+        }
+
+        /**
+         * 正在扫描的条目不会过期，避免同一个加载请求同时扫描多次
+         */
+        boolean expired(long now, long ttl) {
+            return ttl > 0 && task.isDone() && now - created > ttl;
+        }
+    }
+
+}
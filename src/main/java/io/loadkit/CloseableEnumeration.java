@@ -0,0 +1,20 @@
+package io.loadkit;
+
+import java.io.Closeable;
+import java.util.Enumeration;
+
+/**
+ * 可关闭的枚举器，持有打开的系统资源（例如目录流）的枚举器实现该接口，
+ * 遍历完毕时会自动释放，提前结束遍历时需要调用{@link CloseableEnumeration#close()}释放。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 18:40
+ */
+public interface CloseableEnumeration<E> extends Enumeration<E>, Closeable {
+
+    /**
+     * 释放枚举器持有的系统资源，重复调用没有任何效果，关闭之后枚举器不再返回任何元素
+     */
+    void close();
+
+}
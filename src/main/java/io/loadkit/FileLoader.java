@@ -4,9 +4,26 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.Enumeration;
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 文件资源加载器
@@ -38,28 +55,242 @@ public class FileLoader extends ResourceLoader implements Loader {
     }
 
     public Enumeration<Resource> load(String path, boolean recursively, Filter filter) {
-        return new Enumerator(context, root, path, recursively, filter != null ? filter : Filters.ALWAYS);
+        while (path.startsWith("/")) path = path.substring(1);
+        while (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        filter = Filters.normalize(filter);
+        if (filter == Filters.NEVER) {
+            return Collections.enumeration(Collections.<Resource>emptySet());
+        }
+        return new Enumerator(context, root.toPath(), path, recursively, filter);
+    }
+
+    /**
+     * 以深度优先的游标模式加载指定路径的所有满足过滤条件的资源，每一层只保持一个惰性读取的目录流，
+     * 内存占用只与目录深度有关而与目录宽度无关，适用于单个目录下有海量文件的场景。
+     * 过滤逻辑与{@link FileLoader#load(String, boolean, Filter)}一致，但资源的顺序是深度优先的。
+     * 返回的枚举器持有打开的目录流，遍历完毕时自动关闭，提前结束遍历时需要调用{@link CloseableEnumeration#close()}。
+     *
+     * @param path        资源路径
+     * @param recursively 递归加载
+     * @param filter      过滤器
+     * @return 可关闭的资源枚举器
+     */
+    public CloseableEnumeration<Resource> walk(String path, boolean recursively, Filter filter) {
+        while (path.startsWith("/")) path = path.substring(1);
+        while (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        return new CursorEnumerator(context, root.toPath(), path, recursively, Filters.normalize(filter));
+    }
+
+    /**
+     * 以{@link Stream}的方式加载指定路径的所有满足过滤条件的资源，资源流按照子目录拆分，
+     * 每个拆分器每次只打开一个目录，遇到的子目录暂存起来，拆分时将暂存的子目录分出一半交给新的拆分器，
+     * 暂存的子目录不够拆分时先预读当前目录的一批条目，所以从单个根目录开始的并行流也能被拆分。
+     * 没有消费完毕的资源流需要调用{@link Stream#close()}关闭仍然打开的目录流。
+     *
+     * @param path        资源路径
+     * @param recursively 递归加载
+     * @param filter      过滤器
+     * @return 资源流
+     */
+    @Override
+    public Stream<Resource> stream(String path, boolean recursively, Filter filter) {
+        while (path.startsWith("/")) path = path.substring(1);
+        while (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        filter = Filters.normalize(filter);
+        if (filter == Filters.NEVER) {
+            return Stream.empty();
+        }
+        NameFilter nameFilter = Filters.byName(filter);
+        Path file = path.length() > 0 ? root.toPath().resolve(path) : root.toPath();
+        BasicFileAttributes attributes = attributes(file);
+        if (attributes == null) {
+            return Stream.empty();
+        }
+        if (attributes.isDirectory()) {
+            Deque<Node> nodes = new ArrayDeque<Node>();
+            nodes.add(new Node(file, path.length() > 0 ? path + "/" : ""));
+            Queue<Cursor> cursors = new ConcurrentLinkedQueue<Cursor>();
+            Walker walker = new Walker(context, nodes, new ArrayDeque<Resource>(), recursively, filter, nameFilter, cursors);
+            return StreamSupport.stream(walker, false).onClose(() -> {
+                Cursor cursor;
+                while ((cursor = cursors.poll()) != null) cursor.close();
+            });
+        }
+        if (attributes.isRegularFile()) {
+            Resource resource = resource(context, file, path, filter, nameFilter);
+            if (resource != null) {
+                return Stream.of(resource);
+            }
+        }
+        return Stream.empty();
+    }
+
+    /**
+     * 采用{@link ForkJoinPool}并行加载指定路径的所有满足过滤条件的资源，每一个子目录作为一个独立的子任务交给线程池调度，
+     * 空闲线程通过工作窃取分担其他线程的子目录，适用于NVMe或网络文件系统等并发列目录更快的场景。
+     * 过滤逻辑与{@link FileLoader#load(String, boolean, Filter)}完全一致，结果的顺序则与深度优先的{@link FileLoader#walk(String, boolean, Filter)}一致，
+     * 不同的是该方法会在返回之前完成整个目录的遍历，所以返回的资源枚举器不再是惰性加载的。
+     *
+     * @param path        资源路径
+     * @param recursively 递归加载
+     * @param filter      过滤器
+     * @param pool        并行遍历所使用的线程池
+     * @return 资源枚举器
+     */
+    public Enumeration<Resource> load(String path, boolean recursively, Filter filter, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        while (path.startsWith("/")) path = path.substring(1);
+        while (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        filter = Filters.normalize(filter);
+        if (filter == Filters.NEVER) {
+            return Collections.enumeration(Collections.<Resource>emptySet());
+        }
+        NameFilter nameFilter = Filters.byName(filter);
+        Path file = path.length() > 0 ? root.toPath().resolve(path) : root.toPath();
+        BasicFileAttributes attributes = attributes(file);
+        if (attributes == null) {
+            return Collections.enumeration(Collections.<Resource>emptySet());
+        }
+        if (attributes.isDirectory()) {
+            Task task = new Task(context, file, path.length() > 0 ? path + "/" : "", recursively, filter, nameFilter);
+            return Collections.enumeration(pool.invoke(task));
+        }
+        if (attributes.isRegularFile()) {
+            Resource resource = resource(context, file, path, filter, nameFilter);
+            if (resource != null) {
+                return Collections.enumeration(Collections.singleton(resource));
+            }
+        }
+        return Collections.enumeration(Collections.<Resource>emptySet());
     }
 
+    /**
+     * 过滤资源，过滤器为{@link Filters#ALWAYS}时不调用过滤器，如果过滤器可以仅根据名称做出判断则不构建URL，满足过滤条件时返回资源对象否则返回{@code null}。
+     * 资源对象持有文件的路径，直接打开文件的输入流。
+     *
+     * @param context    URL上下文
+     * @param file       资源文件
+     * @param name       资源名称
+     * @param filter     过滤器
+     * @param nameFilter 过滤器的名称过滤视图，可以为{@code null}
+     * @return 满足过滤条件的资源对象，不满足时返回{@code null}
+     */
+    private static Resource resource(URL context, Path file, String name, Filter filter, NameFilter nameFilter) {
+        if (filter == Filters.ALWAYS) {
+            return new FileRes(context, name, file);
+        }
+        if (nameFilter != null) {
+            return nameFilter.filtrate(name) ? new FileRes(context, name, file) : null;
+        }
+        try {
+            URL url = new URL(context, Uris.encodePath(name, Charset.defaultCharset()));
+            return filter.filtrate(name, url) ? new FileRes(context, name, url, file) : null;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 读取文件属性，一次系统调用同时得到文件是否存在以及文件类型，文件不存在或无法读取时返回{@code null}
+     *
+     * @param path 文件路径
+     * @return 文件属性
+     */
+    private static BasicFileAttributes attributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 尚未打开的目录节点，前缀即该目录下资源名称的前缀，以"/"结尾或为空
+     */
+    private static class Node {
+        private final Path path;
+        private final String prefix;
+
+        Node(Path path, String prefix) {
+            this.path = path;
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * 目录游标，即一个正在被惰性读取的目录流以及该目录下资源名称的前缀，前缀以"/"结尾或为空
+     */
+    private static class Cursor {
+        private final DirectoryStream<Path> stream;
+        private final Iterator<Path> iterator;
+        private final String prefix;
+
+        Cursor(DirectoryStream<Path> stream, String prefix) {
+            this.stream = stream;
+            this.iterator = stream.iterator();
+            this.prefix = prefix;
+        }
+
+        void close() {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // 关闭目录流失败时忽略
+            }
+        }
+    }
+
+    /**
+     * 广度优先的文件资源枚举器，每次从队列中取出一个目录时读取其全部条目并立即关闭目录流，
+     * 所以枚举器不持有任何打开的目录，没有遍历完也不需要关闭，代价是内存占用与目录宽度有关。
+     * 遍历过程采用显式的队列而不是递归调用，过滤器为{@link PathFilter}时，不允许进入的子目录不会被列出。
+     */
     private static class Enumerator extends ResourceEnumerator implements Enumeration<Resource> {
         private final URL context;
         private final boolean recursively;
         private final Filter filter;
-        private final Queue<File> queue;
+        private final NameFilter nameFilter;
+        private final Queue<Pending> queue;
 
-        Enumerator(URL context, File root, String path, boolean recursively, Filter filter) {
+        Enumerator(URL context, Path root, String path, boolean recursively, Filter filter) {
             this.context = context;
             this.recursively = recursively;
             this.filter = filter;
-            this.queue = new LinkedList<File>();
-            File file = new File(root, path);
-            if (file.isDirectory()) {
-                File[] files = file.listFiles();
-                for (int i = 0; files != null && i < files.length; i++) {
-                    queue.offer(files[i]);
+            this.nameFilter = Filters.byName(filter);
+            this.queue = new ArrayDeque<Pending>();
+            Path file = path.length() > 0 ? root.resolve(path) : root;
+            BasicFileAttributes attributes = attributes(file);
+            if (attributes == null) {
+                return;
+            }
+            if (attributes.isDirectory()) {
+                list(file, path.length() > 0 ? path + "/" : "");
+            } else if (attributes.isRegularFile()) {
+                queue.offer(new Pending(file, path, false));
+            }
+        }
+
+        private void list(Path directory, String prefix) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path path : stream) {
+                    BasicFileAttributes attributes = attributes(path);
+                    if (attributes == null) {
+                        continue;
+                    }
+                    String name = prefix + path.getFileName().toString();
+                    if (attributes.isDirectory()) {
+                        String folder = name + "/";
+                        if (recursively && Filters.descend(filter, folder)) queue.offer(new Pending(path, folder, true));
+                    } else if (attributes.isRegularFile()) {
+                        queue.offer(new Pending(path, name, false));
+                    }
                 }
-            } else {
-                queue.offer(file);
+            } catch (IOException e) {
+                // 无法读取的目录直接忽略，与 File.listFiles() 返回 null 时的处理方式一致
+            } catch (DirectoryIteratorException e) {
+                // 目录读取到一半失败时保留已经读取到的部分
             }
         }
 
@@ -67,37 +298,321 @@ public class FileLoader extends ResourceLoader implements Loader {
             if (next != null) {
                 return true;
             }
-            while (!queue.isEmpty()) {
-                File file = queue.poll();
+            Pending pending;
+            while ((pending = queue.poll()) != null) {
+                if (pending.directory) {
+                    list(pending.path, pending.name);
+                    continue;
+                }
+                next = resource(context, pending.path, pending.name, filter, nameFilter);
+                if (next != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * 广度优先遍历时尚未处理的文件或目录，目录的名称以"/"结尾或为空
+     */
+    private static class Pending {
+        private final Path path;
+        private final String name;
+        private final boolean directory;
+
+        Pending(Path path, String name, boolean directory) {
+            this.path = path;
+            this.name = name;
+            this.directory = directory;
+        }
+    }
+
+    /**
+     * 深度优先的游标模式文件资源枚举器，每一层只保持一个惰性读取的目录流，内存占用只与目录深度有关而与目录宽度无关，
+     * 遍历过程采用显式的栈而不是递归调用。目录流在该层遍历完成后立即关闭，提前结束遍历时需要调用{@link CursorEnumerator#close()}。
+     * 过滤器为{@link PathFilter}时，不允许进入的子目录不会被打开。
+     */
+    private static class CursorEnumerator extends ResourceEnumerator implements CloseableEnumeration<Resource> {
+        private final URL context;
+        private final boolean recursively;
+        private final Filter filter;
+        private final NameFilter nameFilter;
+        private final Deque<Cursor> cursors;
+        private Path file;
+        private String name;
+
+        CursorEnumerator(URL context, Path root, String path, boolean recursively, Filter filter) {
+            this.context = context;
+            this.recursively = recursively;
+            this.filter = filter;
+            this.nameFilter = Filters.byName(filter);
+            this.cursors = new ArrayDeque<Cursor>();
+            if (filter == Filters.NEVER) {
+                return;
+            }
+            Path file = path.length() > 0 ? root.resolve(path) : root;
+            BasicFileAttributes attributes = attributes(file);
+            if (attributes == null) {
+                return;
+            }
+            if (attributes.isDirectory()) {
+                open(file, path.length() > 0 ? path + "/" : "");
+            } else if (attributes.isRegularFile()) {
+                this.file = file;
+                this.name = path;
+            }
+        }
+
+        private void open(Path directory, String prefix) {
+            try {
+                cursors.push(new Cursor(Files.newDirectoryStream(directory), prefix));
+            } catch (IOException e) {
+                // 无法读取的目录直接忽略，与 File.listFiles() 返回 null 时的处理方式一致
+            }
+        }
 
-                if (!file.exists()) {
+        public boolean hasMoreElements() {
+            if (next != null) {
+                return true;
+            }
+            if (file != null) {
+                Path path = file;
+                file = null;
+                if (accept(path, name)) {
+                    return true;
+                }
+            }
+            while (!cursors.isEmpty()) {
+                Cursor cursor = cursors.peek();
+                Path path;
+                try {
+                    path = cursor.iterator.hasNext() ? cursor.iterator.next() : null;
+                } catch (DirectoryIteratorException e) {
+                    path = null;
+                }
+                if (path == null) {
+                    cursors.pop().close();
+                    continue;
+                }
+                BasicFileAttributes attributes = attributes(path);
+                if (attributes == null) {
                     continue;
                 }
+                String name = cursor.prefix + path.getFileName().toString();
+                if (attributes.isDirectory()) {
+                    String prefix = name + "/";
+                    if (recursively && Filters.descend(filter, prefix)) open(path, prefix);
+                } else if (attributes.isRegularFile() && accept(path, name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean accept(Path file, String name) {
+            next = resource(context, file, name, filter, nameFilter);
+            return next != null;
+        }
+
+        public void close() {
+            file = null;
+            next = null;
+            while (!cursors.isEmpty()) {
+                cursors.pop().close();
+            }
+        }
 
-                if (file.isFile()) {
-                    try {
-                        String name = context.toURI().relativize(file.toURI()).toString();
-                        URL url = new URL(context, name);
-                        if (filter.filtrate(name, url)) {
-                            next = new Res(name, url);
-                            return true;
+    }
+
+    /**
+     * 并行遍历一个目录的子任务，目录下的文件直接过滤，子目录则拆分成新的子任务，
+     * 合并结果时按照目录流的顺序依次拼接，保证与深度优先的串行遍历顺序一致。
+     */
+    private static class Task extends RecursiveTask<List<Resource>> {
+        private static final long serialVersionUID = 1L;
+
+        private final URL context;
+        private final Path directory;
+        private final String prefix;
+        private final boolean recursively;
+        private final Filter filter;
+        private final NameFilter nameFilter;
+
+        Task(URL context, Path directory, String prefix, boolean recursively, Filter filter, NameFilter nameFilter) {
+            this.context = context;
+            this.directory = directory;
+            this.prefix = prefix;
+            this.recursively = recursively;
+            this.filter = filter;
+            this.nameFilter = nameFilter;
+        }
+
+        @Override
+        protected List<Resource> compute() {
+            // 元素为资源对象或者尚未合并的子任务
+            List<Object> parts = new ArrayList<Object>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path path : stream) {
+                    BasicFileAttributes attributes = attributes(path);
+                    if (attributes == null) {
+                        continue;
+                    }
+                    String name = prefix + path.getFileName().toString();
+                    if (attributes.isDirectory()) {
+                        String directory = name + "/";
+                        if (recursively && Filters.descend(filter, directory)) {
+                            Task task = new Task(context, path, directory, true, filter, nameFilter);
+                            task.fork();
+                            parts.add(task);
                         }
-                    } catch (Exception e) {
-                        throw new IllegalStateException(e);
+                    } else if (attributes.isRegularFile()) {
+                        Resource resource = resource(context, path, name, filter, nameFilter);
+                        if (resource != null) parts.add(resource);
                     }
                 }
-                if (file.isDirectory() && recursively) {
-                    File[] files = file.listFiles();
-                    for (int i = 0; files != null && i < files.length; i++) {
-                        queue.offer(files[i]);
-                    }
-                    return hasMoreElements();
+            } catch (IOException e) {
+                // 无法读取的目录直接忽略，与串行遍历的处理方式一致
+            } catch (DirectoryIteratorException e) {
+                // 目录读取到一半失败时保留已经读取到的部分，与串行遍历的处理方式一致
+            }
+            List<Resource> resources = new ArrayList<Resource>();
+            for (Object part : parts) {
+                if (part instanceof Task) {
+                    resources.addAll(((Task) part).join());
+                } else {
+                    resources.add((Resource) part);
+                }
+            }
+            return resources;
+        }
+    }
+
+    /**
+     * 按照子目录拆分的资源流拆分器，拆分时如果还没有发现足够的子目录，则先打开目录并预读一批条目，
+     * 预读到的子目录加入待遍历的目录，满足过滤条件的文件暂存为就绪的资源，两者都可以分出一半交给新的拆分器。
+     */
+    private static class Walker implements Spliterator<Resource> {
+        /**
+         * 每次拆分时最多预读的目录条目数量
+         */
+        private static final int BATCH = 1024;
+
+        private final URL context;
+        private final Deque<Node> nodes;
+        private final Deque<Resource> ready;
+        private final boolean recursively;
+        private final Filter filter;
+        private final NameFilter nameFilter;
+        private final Queue<Cursor> cursors;
+        private Cursor cursor;
+
+        Walker(URL context, Deque<Node> nodes, Deque<Resource> ready, boolean recursively, Filter filter, NameFilter nameFilter, Queue<Cursor> cursors) {
+            this.context = context;
+            this.nodes = nodes;
+            this.ready = ready;
+            this.recursively = recursively;
+            this.filter = filter;
+            this.nameFilter = nameFilter;
+            this.cursors = cursors;
+        }
+
+        /**
+         * 当前没有打开的目录时打开下一个待遍历的目录
+         *
+         * @return 是否有打开的目录
+         */
+        private boolean open() {
+            while (cursor == null) {
+                Node node = nodes.pollLast();
+                if (node == null) {
+                    return false;
+                }
+                try {
+                    cursor = new Cursor(Files.newDirectoryStream(node.path), node.prefix);
+                    cursors.offer(cursor);
+                } catch (IOException e) {
+                    // 无法读取的目录直接忽略，与串行遍历的处理方式一致
                 }
             }
+            return true;
+        }
 
-            return false;
+        /**
+         * 读取当前目录的下一个条目，子目录加入待遍历的目录，满足过滤条件的文件放入就绪的资源，当前目录读取完毕时关闭目录流
+         */
+        private void step() {
+            Path path;
+            try {
+                path = cursor.iterator.hasNext() ? cursor.iterator.next() : null;
+            } catch (DirectoryIteratorException e) {
+                path = null;
+            }
+            if (path == null) {
+                cursors.remove(cursor);
+                cursor.close();
+                cursor = null;
+                return;
+            }
+            BasicFileAttributes attributes = attributes(path);
+            if (attributes == null) {
+                return;
+            }
+            String name = cursor.prefix + path.getFileName().toString();
+            if (attributes.isDirectory()) {
+                String prefix = name + "/";
+                if (recursively && Filters.descend(filter, prefix)) nodes.addLast(new Node(path, prefix));
+            } else if (attributes.isRegularFile()) {
+                Resource resource = resource(context, path, name, filter, nameFilter);
+                if (resource != null) ready.addLast(resource);
+            }
         }
 
+        public boolean tryAdvance(Consumer<? super Resource> action) {
+            while (ready.isEmpty()) {
+                if (!open()) {
+                    return false;
+                }
+                step();
+            }
+            action.accept(ready.pollFirst());
+            return true;
+        }
+
+        public Spliterator<Resource> trySplit() {
+            // 只剩一个目录时先打开它，再预读一批条目直到发现可以分出去的子目录
+            if (cursor == null && nodes.size() == 1) {
+                open();
+            }
+            for (int i = 0; i < BATCH && cursor != null && nodes.size() < 2; i++) {
+                step();
+            }
+            Deque<Node> splitNodes = new ArrayDeque<Node>();
+            Deque<Resource> splitReady = new ArrayDeque<Resource>();
+            int size = nodes.size();
+            if (size >= 2 || (size == 1 && (cursor != null || !ready.isEmpty()))) {
+                // 先发现的子目录通常更靠近根目录，子树也更大，所以分出去的是队首的一半
+                for (int i = 0, n = (size + 1) / 2; i < n; i++) {
+                    splitNodes.addLast(nodes.pollFirst());
+                }
+            } else if (ready.size() >= 2) {
+                for (int i = 0, n = ready.size() / 2; i < n; i++) {
+                    splitReady.addLast(ready.pollFirst());
+                }
+            } else {
+                return null;
+            }
+            return new Walker(context, splitNodes, splitReady, recursively, filter, nameFilter, cursors);
+        }
+
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
     }
 
 }
@@ -0,0 +1,49 @@
+package io.loadkit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 文件资源，持有资源文件的路径，直接打开文件的输入流，而不是通过{@link URL#openStream()}解析"file:"地址并创建连接对象。
+ * URL地址依然惰性构建，供需要的调用者使用。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 17:10
+ */
+public class FileRes extends LazyRes implements Resource {
+    private final Path file;
+
+    public FileRes(URL context, String name, Path file) {
+        super(context, name);
+        if (file == null) {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        this.file = file;
+    }
+
+    public FileRes(URL context, String name, URL url, Path file) {
+        super(context, name, url);
+        if (file == null) {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        this.file = file;
+    }
+
+    /**
+     * 获取资源文件的路径
+     *
+     * @return 资源文件的路径
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+}
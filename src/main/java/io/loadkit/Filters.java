@@ -1,7 +1,11 @@
 package io.loadkit;
 
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * 过滤器工具类
@@ -14,19 +18,27 @@ public abstract class Filters {
     /**
      * 永远返回true的过滤器
      */
-    public static final Filter ALWAYS = new Filter() {
+    public static final Filter ALWAYS = new NameFilter() {
         public boolean filtrate(String name, URL url) {
             return true;
         }
+
+        public boolean filtrate(String name) {
+            return true;
+        }
     };
 
     /**
      * 永远返回false的过滤器
      */
-    public static final Filter NEVER = new Filter() {
+    public static final Filter NEVER = new NameFilter() {
         public boolean filtrate(String name, URL url) {
             return false;
         }
+
+        public boolean filtrate(String name) {
+            return false;
+        }
     };
 
     /**
@@ -109,4 +121,229 @@ public abstract class Filters {
         return any(filters);
     }
 
+    /**
+     * 化简过滤器，返回逻辑上等价的过滤器：
+     * <p>1. {@code null}视为{@link Filters#ALWAYS}。</p>
+     * <p>2. 展开嵌套的同类{@link AllFilter}/{@link AnyFilter}。</p>
+     * <p>3. {@link AllFilter}去掉{@link Filters#ALWAYS}子过滤器，只要有一个子过滤器为{@link Filters#NEVER}则化简为{@link Filters#NEVER}；
+     * {@link AnyFilter}去掉{@link Filters#NEVER}子过滤器，只要有一个子过滤器为{@link Filters#ALWAYS}则化简为{@link Filters#ALWAYS}。</p>
+     * <p>4. 没有子过滤器的{@link AllFilter}化简为{@link Filters#ALWAYS}，没有子过滤器的{@link AnyFilter}化简为{@link Filters#NEVER}，
+     * 只有一个子过滤器时化简为该子过滤器。</p>
+     * 资源加载器据此在过滤器为{@link Filters#NEVER}时直接返回空的结果而不打开任何目录或JAR包，为{@link Filters#ALWAYS}时不再调用过滤器。
+     * 和{@link Filters#byName(Filter)}一样，化简的结果是调用时子过滤器的快照，只有{@link AllFilter}和{@link AnyFilter}本身会被化简，其子类保持不变。
+     *
+     * @param filter 过滤器
+     * @return 化简之后的过滤器
+     */
+    public static Filter normalize(Filter filter) {
+        if (filter == null) {
+            return ALWAYS;
+        }
+        boolean all = filter.getClass() == AllFilter.class;
+        if (!all && filter.getClass() != AnyFilter.class) {
+            return filter;
+        }
+        // ALL逻辑中可以忽略的子过滤器以及决定结果的子过滤器，ANY逻辑则相反
+        Filter identity = all ? ALWAYS : NEVER;
+        Filter absorbing = all ? NEVER : ALWAYS;
+        MixFilter mixFilter = (MixFilter) filter;
+        Set<Filter> children = new LinkedHashSet<Filter>();
+        boolean changed = false;
+        for (Filter child : mixFilter.snapshot()) {
+            Filter normalized = normalize(child);
+            changed |= normalized != child;
+            if (normalized == absorbing) {
+                return absorbing;
+            }
+            if (normalized == identity) {
+                changed = true;
+            } else if (normalized.getClass() == filter.getClass()) {
+                children.addAll(Arrays.asList(((MixFilter) normalized).snapshot()));
+                changed = true;
+            } else {
+                children.add(normalized);
+            }
+        }
+        if (children.isEmpty()) {
+            return identity;
+        }
+        if (children.size() == 1) {
+            return children.iterator().next();
+        }
+        if (!changed) {
+            return filter;
+        }
+        MixFilter normalized = all ? new AllFilter(children) : new AnyFilter(children);
+        normalized.setAdaptive(mixFilter.isAdaptive());
+        return normalized;
+    }
+
+    /**
+     * 获取过滤器的名称过滤视图，如果过滤器本身就是{@link NameFilter}则返回其本身，
+     * 如果过滤器是{@link AllFilter}或{@link AnyFilter}而且所有子过滤器都可以仅根据名称做出判断，
+     * 则返回由这些子过滤器的名称过滤视图组成的复合名称过滤器，否则返回{@code null}即代表该过滤器需要资源的URL地址。
+     * 注意复合过滤器的名称过滤视图是调用时子过滤器的快照，之后对复合过滤器的增删并不会反映到视图上，
+     * 复合过滤器开启了自适应模式时名称过滤视图也会按照自己的统计数据调整子过滤器的顺序。
+     *
+     * @param filter 过滤器
+     * @return 名称过滤视图，如果不能仅根据名称过滤则返回{@code null}
+     */
+    public static NameFilter byName(Filter filter) {
+        if (filter == null) {
+            return (NameFilter) ALWAYS;
+        }
+        if (filter instanceof NameFilter) {
+            return (NameFilter) filter;
+        }
+        if (filter.getClass() != AllFilter.class && filter.getClass() != AnyFilter.class) {
+            return null;
+        }
+        MixFilter mixFilter = (MixFilter) filter;
+        Filter[] filters = mixFilter.snapshot();
+        NameFilter[] nameFilters = new NameFilter[filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            nameFilters[i] = byName(filters[i]);
+            if (nameFilters[i] == null) {
+                return null;
+            }
+        }
+        boolean adaptive = mixFilter.isAdaptive();
+        return filter instanceof AllFilter ? new AllNameFilter(nameFilters, adaptive) : new AnyNameFilter(nameFilters, adaptive);
+    }
+
+    /**
+     * 获取过滤器的字节名称过滤视图，用于在解码资源名称之前做初步判断：
+     * 如果过滤器本身就是{@link ByteNameFilter}则返回其本身；
+     * 如果过滤器是{@link AllFilter}则由其中有字节名称过滤视图的子过滤器组成，其余子过滤器留给解码之后的最终判断；
+     * 如果过滤器是{@link AnyFilter}则要求所有子过滤器都有字节名称过滤视图，否则任何资源名称都有可能满足。
+     * 没有可用的字节名称过滤视图时返回{@code null}。
+     *
+     * @param filter 过滤器
+     * @return 字节名称过滤视图，如果不能做出初步判断则返回{@code null}
+     */
+    public static ByteNameFilter byBytes(Filter filter) {
+        if (filter instanceof ByteNameFilter) {
+            return (ByteNameFilter) filter;
+        }
+        if (filter == null || filter.getClass() != AllFilter.class && filter.getClass() != AnyFilter.class) {
+            return null;
+        }
+        boolean all = filter instanceof AllFilter;
+        Filter[] filters = ((MixFilter) filter).snapshot();
+        ByteNameFilter[] byteFilters = new ByteNameFilter[filters.length];
+        int size = 0;
+        for (Filter child : filters) {
+            ByteNameFilter byteFilter = byBytes(child);
+            if (byteFilter != null) {
+                byteFilters[size++] = byteFilter;
+            } else if (!all) {
+                return null;
+            }
+        }
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return byteFilters[0];
+        }
+        return new MixByteFilter(Arrays.copyOf(byteFilters, size), all);
+    }
+
+    /**
+     * 判断过滤器是否允许资源加载器进入指定目录，即该目录下是否有可能存在满足过滤条件的资源，
+     * 只有{@link PathFilter}才能做出判断，其他过滤器总是返回true。
+     *
+     * @param filter    过滤器
+     * @param directory 目录名称，以"/"结尾
+     * @return true: 需要进入该目录  false: 可以跳过整个目录
+     */
+    public static boolean descend(Filter filter, String directory) {
+        return !(filter instanceof PathFilter) || ((PathFilter) filter).descend(directory);
+    }
+
+    private static class AllNameFilter implements NameFilter, Filter {
+        private final NameFilter[] filters;
+        private final MixFilter.Ranking ranking;
+
+        AllNameFilter(NameFilter[] filters, boolean adaptive) {
+            this.filters = filters;
+            this.ranking = adaptive ? new MixFilter.Ranking(filters) : null;
+        }
+
+        public boolean filtrate(String name, URL url) {
+            return filtrate(name);
+        }
+
+        public boolean filtrate(String name) {
+            if (ranking != null) {
+                return !ranking.find(name, false);
+            }
+            for (NameFilter filter : filters) {
+                if (!filter.filtrate(name)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class AnyNameFilter implements NameFilter, Filter {
+        private final MultiMatcher matcher;
+        private final NameFilter[] filters;
+        private final MixFilter.Ranking ranking;
+
+        AnyNameFilter(NameFilter[] filters, boolean adaptive) {
+            if (MultiMatcher.worthwhile(filters)) {
+                this.matcher = new MultiMatcher(filters);
+                Filter[] others = matcher.getOthers();
+                this.filters = new NameFilter[others.length];
+                for (int i = 0; i < others.length; i++) {
+                    this.filters[i] = (NameFilter) others[i];
+                }
+            } else {
+                this.matcher = null;
+                this.filters = filters;
+            }
+            this.ranking = adaptive ? new MixFilter.Ranking(this.filters) : null;
+        }
+
+        public boolean filtrate(String name, URL url) {
+            return filtrate(name);
+        }
+
+        public boolean filtrate(String name) {
+            if (matcher != null && matcher.matches(name)) {
+                return true;
+            }
+            if (ranking != null) {
+                return ranking.find(name, true);
+            }
+            for (NameFilter filter : filters) {
+                if (filter.filtrate(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class MixByteFilter implements ByteNameFilter {
+        private final ByteNameFilter[] filters;
+        private final boolean all;
+
+        MixByteFilter(ByteNameFilter[] filters, boolean all) {
+            this.filters = filters;
+            this.all = all;
+        }
+
+        public boolean accept(ByteBuffer buffer, int offset, int length) {
+            for (ByteNameFilter filter : filters) {
+                if (filter.accept(buffer, offset, length) != all) {
+                    return !all;
+                }
+            }
+            return all;
+        }
+    }
+
 }
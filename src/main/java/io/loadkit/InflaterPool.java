@@ -0,0 +1,345 @@
+package io.loadkit;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * 解压对象池，缓存raw DEFLATE格式的{@link Inflater}以及读取压缩数据的缓冲区，避免批量读取压缩条目时为每个输入流创建和释放zlib的本地内存。
+ * <p>1. 池按照线程分成多个条带，每个条带有固定数量的槽位，线程只在自己的条带中通过CAS存取，不需要加锁，
+ * 槽位满了之后归还的{@link Inflater}直接释放，所以池中缓存的对象数量有上限。</p>
+ * <p>2. {@link InflaterPool#inflate(InputStream, long)}返回的输入流在关闭时归还{@link Inflater}和缓冲区，
+ * 关闭之后再归还或者在其他线程关闭都是安全的。</p>
+ * <p>3. 没有关闭就被回收的输入流会被检测出来，其{@link Inflater}随即被释放，数量通过{@link InflaterPool#getLeaks()}获取。
+ * 检测不依赖后台线程，而是在每次借出和归还时顺便检查。</p>
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 18:10
+ */
+public class InflaterPool {
+    /**
+     * 缺省的每个条带的槽位数量
+     */
+    public static final int DEFAULT_SLOTS = 4;
+    /**
+     * 缺省的缓冲区大小
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 16384;
+
+    private static final InflaterPool SHARED = new InflaterPool();
+
+    private final int mask;
+    private final int slots;
+    private final int bufferSize;
+    private final AtomicReferenceArray<Inflater> inflaters;
+    private final AtomicReferenceArray<byte[]> buffers;
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+    private final Set<Tracker> trackers = Collections.newSetFromMap(new ConcurrentHashMap<Tracker, Boolean>());
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+
+    public InflaterPool() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_SLOTS, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * 创建解压对象池
+     *
+     * @param stripes    条带数量，会被向上取整到2的幂
+     * @param slots      每个条带的槽位数量
+     * @param bufferSize 缓冲区大小
+     */
+    public InflaterPool(int stripes, int slots, int bufferSize) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive");
+        }
+        if (slots <= 0) {
+            throw new IllegalArgumentException("slots must be positive");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+        int size = Integer.highestOneBit(stripes * 2 - 1);
+        this.mask = size - 1;
+        this.slots = slots;
+        this.bufferSize = bufferSize;
+        this.inflaters = new AtomicReferenceArray<Inflater>(size * slots);
+        this.buffers = new AtomicReferenceArray<byte[]>(size * slots);
+    }
+
+    /**
+     * 获取共享的解压对象池，{@link ZipDirectory}缺省使用该对象池
+     *
+     * @return 共享的解压对象池
+     */
+    public static InflaterPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * 借出一个raw DEFLATE格式的{@link Inflater}，池中没有时创建一个新的
+     *
+     * @return {@link Inflater}
+     */
+    public Inflater acquire() {
+        expunge();
+        Inflater inflater = take(inflaters);
+        if (inflater == null) {
+            created.incrementAndGet();
+            inflater = new Inflater(true);
+        }
+        return inflater;
+    }
+
+    /**
+     * 归还{@link Inflater}，重置之后放回当前线程的条带，条带已满时直接释放
+     *
+     * @param inflater {@link Inflater}
+     */
+    public void release(Inflater inflater) {
+        if (inflater == null) {
+            throw new IllegalArgumentException("inflater must not be null");
+        }
+        inflater.reset();
+        if (!put(inflaters, inflater)) {
+            inflater.end();
+        }
+        expunge();
+    }
+
+    /**
+     * 借出一个大小为bufferSize的缓冲区，池中没有时创建一个新的
+     *
+     * @return 缓冲区
+     */
+    public byte[] acquireBuffer() {
+        byte[] buffer = take(buffers);
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    /**
+     * 归还缓冲区，大小不符的缓冲区直接丢弃
+     *
+     * @param buffer 缓冲区
+     */
+    public void releaseBuffer(byte[] buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("buffer must not be null");
+        }
+        if (buffer.length == bufferSize) {
+            put(buffers, buffer);
+        }
+    }
+
+    private <T> T take(AtomicReferenceArray<T> array) {
+        int from = stripe();
+        for (int i = from; i < from + slots; i++) {
+            T value = array.get(i);
+            if (value != null && array.compareAndSet(i, value, null)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private <T> boolean put(AtomicReferenceArray<T> array, T value) {
+        int from = stripe();
+        for (int i = from; i < from + slots; i++) {
+            if (array.get(i) == null && array.compareAndSet(i, null, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int stripe() {
+        return ((int) Thread.currentThread().getId() & mask) * slots;
+    }
+
+    /**
+     * 创建解压输入流，从in中读取raw DEFLATE格式的压缩数据，使用池中的{@link Inflater}和缓冲区，关闭时归还，
+     * 关闭输入流也会关闭in。
+     *
+     * @param in   压缩数据的输入流
+     * @param size 解压之后的字节数，用于{@link InputStream#available()}，未知时为-1
+     * @return 解压输入流
+     */
+    public InputStream inflate(InputStream in, long size) {
+        if (in == null) {
+            throw new IllegalArgumentException("in must not be null");
+        }
+        PooledInputStream stream = new PooledInputStream(in, size);
+        Tracker tracker = new Tracker(stream, queue, stream.inflater);
+        trackers.add(tracker);
+        stream.tracker = tracker;
+        return stream;
+    }
+
+    /**
+     * 清理没有关闭就被回收的输入流，释放其{@link Inflater}，缓冲区则随输入流一起被回收
+     */
+    private void expunge() {
+        Reference<?> reference;
+        while ((reference = queue.poll()) != null) {
+            Tracker tracker = (Tracker) reference;
+            if (trackers.remove(tracker)) {
+                leaks.incrementAndGet();
+                tracker.inflater.end();
+            }
+        }
+    }
+
+    /**
+     * 获取创建过的{@link Inflater}数量，与借出的次数相比可以看出池的命中情况
+     *
+     * @return 创建过的{@link Inflater}数量
+     */
+    public long getCreated() {
+        return created.get();
+    }
+
+    /**
+     * 获取检测到的没有关闭就被回收的输入流数量
+     *
+     * @return 泄漏的输入流数量
+     */
+    public long getLeaks() {
+        expunge();
+        return leaks.get();
+    }
+
+    /**
+     * 跟踪输入流是否被回收，输入流正常关闭时从跟踪集合中移除
+     */
+    private static class Tracker extends PhantomReference<Object> {
+        private final Inflater inflater;
+
+        Tracker(Object referent, ReferenceQueue<Object> queue, Inflater inflater) {
+            super(referent, queue);
+            this.inflater = inflater;
+        }
+    }
+
+    /**
+     * 使用池中的{@link Inflater}和缓冲区解压的输入流，压缩数据读取完毕之后补充一个空字节，
+     * raw DEFLATE格式的{@link Inflater}有可能需要它才能结束，与{@link java.util.zip.ZipFile}的处理一致。
+     */
+    private class PooledInputStream extends InputStream {
+        private final InputStream in;
+        private final long size;
+        private final Inflater inflater;
+        private final byte[] buffer;
+        private Tracker tracker;
+        private boolean eof;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        PooledInputStream(InputStream in, long size) {
+            this.in = in;
+            this.size = size;
+            this.inflater = acquire();
+            this.buffer = acquireBuffer();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed.get()) {
+                throw new IOException("Stream closed");
+            }
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            try {
+                while (true) {
+                    int n = inflater.inflate(b, off, len);
+                    if (n > 0) {
+                        return n;
+                    }
+                    if (inflater.finished() || inflater.needsDictionary()) {
+                        return -1;
+                    }
+                    if (inflater.needsInput()) {
+                        fill();
+                    }
+                }
+            } catch (DataFormatException e) {
+                String message = e.getMessage();
+                throw new ZipException(message != null ? message : "Invalid ZLIB data format");
+            }
+        }
+
+        private void fill() throws IOException {
+            if (eof) {
+                throw new EOFException("Unexpected end of ZLIB input stream");
+            }
+            int n = in.read(buffer, 0, buffer.length);
+            if (n < 0) {
+                buffer[0] = 0;
+                n = 1;
+                eof = true;
+            }
+            inflater.setInput(buffer, 0, n);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] b = new byte[(int) Math.min(Math.max(n, 0), 512)];
+            long skipped = 0;
+            while (skipped < n) {
+                int count = read(b, 0, (int) Math.min(n - skipped, b.length));
+                if (count < 0) {
+                    break;
+                }
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (closed.get() || inflater.finished()) {
+                return 0;
+            }
+            if (size < 0) {
+                return 1;
+            }
+            return (int) Math.max(0, Math.min(size - inflater.getBytesWritten(), Integer.MAX_VALUE));
+        }
+
+        /**
+         * 关闭输入流，只有第一次关闭的线程归还{@link Inflater}和缓冲区，多个线程同时关闭时也不会把同一个对象归还两次
+         */
+        @Override
+        public void close() throws IOException {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            trackers.remove(tracker);
+            tracker.clear();
+            releaseBuffer(buffer);
+            release(inflater);
+            in.close();
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+package io.loadkit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * JAR包条目索引，将JAR包中所有非目录条目的名称去重并排好序之后缓存起来，
+ * 同一个{@link JarFile}只在第一次使用时遍历一次中央目录，之后所有的前缀查询都通过二分查找定位，
+ * 由于同一目录下的条目在排序之后是连续的，所以目录查询的开销为 O(log n + k) 而不是 O(n)。
+ * 索引以{@link JarFile}对象为弱引用键进行缓存，当{@link JarFile}被回收时对应的索引也随之释放。
+ * 从{@link JarFile}构建的索引同时保留遍历时得到的{@link JarEntry}，从{@link ZipDirectory}构建的索引则保留条目记录在中央目录中的位置，
+ * 打开资源的输入流时不需要再按名称查找一次。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 9:30
+ */
+public class JarIndex {
+    private static final Map<JarFile, JarIndex> CACHE = new WeakHashMap<JarFile, JarIndex>();
+
+    private final String[] names;
+    private final JarEntry[] entries;
+    private final int[] records;
+
+    protected JarIndex(String[] names) {
+        if (names == null) {
+            throw new IllegalArgumentException("names must not be null");
+        }
+        this.names = names;
+        this.entries = null;
+        this.records = null;
+    }
+
+    /**
+     * @param names   排好序并去重的条目名称
+     * @param records 与条目名称一一对应的记录在{@link ZipDirectory}中央目录中的位置
+     */
+    protected JarIndex(String[] names, int[] records) {
+        if (names == null) {
+            throw new IllegalArgumentException("names must not be null");
+        }
+        if (records == null) {
+            throw new IllegalArgumentException("records must not be null");
+        }
+        if (records.length != names.length) {
+            throw new IllegalArgumentException("records must have the same length as names");
+        }
+        this.names = names;
+        this.entries = null;
+        this.records = records;
+    }
+
+    /**
+     * @param names   排好序并去重的条目名称
+     * @param entries 与条目名称一一对应的{@link JarEntry}
+     */
+    protected JarIndex(String[] names, JarEntry[] entries) {
+        if (names == null) {
+            throw new IllegalArgumentException("names must not be null");
+        }
+        if (entries == null) {
+            throw new IllegalArgumentException("entries must not be null");
+        }
+        if (entries.length != names.length) {
+            throw new IllegalArgumentException("entries must have the same length as names");
+        }
+        this.names = names;
+        this.entries = entries;
+        this.records = null;
+    }
+
+    /**
+     * 获取JAR包的条目索引，如果缓存中不存在则遍历一次JAR包的中央目录来构建索引并缓存起来。
+     *
+     * @param jarFile JAR包文件
+     * @return JAR包的条目索引
+     */
+    public static JarIndex of(JarFile jarFile) {
+        if (jarFile == null) {
+            throw new IllegalArgumentException("jarFile must not be null");
+        }
+        synchronized (CACHE) {
+            JarIndex index = CACHE.get(jarFile);
+            if (index != null) {
+                return index;
+            }
+        }
+        JarIndex index = build(jarFile);
+        synchronized (CACHE) {
+            JarIndex exists = CACHE.get(jarFile);
+            if (exists != null) {
+                return exists;
+            }
+            CACHE.put(jarFile, index);
+            return index;
+        }
+    }
+
+    private static JarIndex build(JarFile jarFile) {
+        List<JarEntry> list = new ArrayList<JarEntry>();
+        Enumeration<JarEntry> enumeration = jarFile.entries();
+        while (enumeration.hasMoreElements()) {
+            JarEntry jarEntry = enumeration.nextElement();
+            if (jarEntry.isDirectory()) {
+                continue;
+            }
+            list.add(jarEntry);
+        }
+        JarEntry[] entries = list.toArray(new JarEntry[list.size()]);
+        // 稳定排序，名称相同的条目保持在中央目录中的先后顺序
+        Arrays.sort(entries, new Comparator<JarEntry>() {
+            public int compare(JarEntry a, JarEntry b) {
+                return a.getName().compareTo(b.getName());
+            }
+        });
+        // 重复的条目名称对应同一个资源URL，只保留一个，与{@link JarFile#getJarEntry(String)}一样取最后一个
+        int size = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (size > 0 && entries[i].getName().equals(entries[size - 1].getName())) {
+                entries[size - 1] = entries[i];
+            } else {
+                entries[size++] = entries[i];
+            }
+        }
+        if (size < entries.length) entries = Arrays.copyOf(entries, size);
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) names[i] = entries[i].getName();
+        return new JarIndex(names, entries);
+    }
+
+    /**
+     * 索引中的条目数量
+     *
+     * @return 条目数量
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * 获取指定位置的条目名称
+     *
+     * @param index 位置
+     * @return 条目名称
+     */
+    public String get(int index) {
+        return names[index];
+    }
+
+    /**
+     * 获取指定位置的{@link JarEntry}
+     *
+     * @param index 位置
+     * @return 该位置的{@link JarEntry}，索引不是从{@link JarFile}构建的时候返回{@code null}
+     */
+    public JarEntry entry(int index) {
+        return entries != null ? entries[index] : null;
+    }
+
+    /**
+     * 获取指定位置的条目记录在{@link ZipDirectory}中央目录中的位置
+     *
+     * @param index 位置
+     * @return 条目记录的位置，索引不是从{@link ZipDirectory}构建的时候返回-1
+     */
+    public int record(int index) {
+        return records != null ? records[index] : -1;
+    }
+
+    /**
+     * 查找第一个不小于指定名称的条目位置
+     *
+     * @param name 名称
+     * @return 第一个不小于指定名称的条目位置，如果所有条目都小于指定名称则返回{@link JarIndex#size()}
+     */
+    public int lowerBound(String name) {
+        return lowerBound(name, 0);
+    }
+
+    /**
+     * 从指定位置开始查找第一个不小于指定名称的条目位置
+     *
+     * @param name 名称
+     * @param from 起始位置
+     * @return 第一个不小于指定名称的条目位置，如果所有条目都小于指定名称则返回{@link JarIndex#size()}
+     */
+    public int lowerBound(String name, int from) {
+        int low = from;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[mid].compareTo(name) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 从指定位置开始查找第一个名称既不小于前缀也不以该前缀开头的条目位置，
+     * 结合{@link JarIndex#lowerBound(String)}即可得到以该前缀开头的所有条目的区间。
+     *
+     * @param prefix 前缀
+     * @param from   起始位置
+     * @return 以该前缀开头的条目区间的结束位置（不包含）
+     */
+    public int upperBound(String prefix, int from) {
+        int low = from;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            String name = names[mid];
+            if (name.startsWith(prefix) || name.compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+}
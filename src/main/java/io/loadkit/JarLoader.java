@@ -1,26 +1,54 @@
 package io.loadkit;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Jar包资源加载器
+ * Jar包资源加载器，缺省通过{@link JarFile}读取JAR包的条目，也可以通过{@link ZipDirectory}直接映射JAR包的中央目录，
+ * 后者只为位于加载路径下的条目解码名称，资源的输入流按位置直接读取条目数据，多个线程可以无竞争地同时读取，
+ * 但不会校验签名JAR包，适用于扫描以及批量读取资源的场景。
+ * 通过{@link File}创建的加载器自己打开了{@link JarFile}或者{@link ZipDirectory}，不再使用时需要调用{@link JarLoader#close()}关闭；
+ * 通过URL或者传入的{@link JarFile}、{@link ZipDirectory}创建的加载器不拥有它们，关闭加载器不会关闭它们，由调用者负责关闭。
  *
  * @author Payne 646742615@qq.com
  * 2018/12/1 17:28
  */
-public class JarLoader extends ResourceLoader implements Loader {
+public class JarLoader extends ResourceLoader implements Loader, Closeable {
     private final URL context;
     private final JarFile jarFile;
+    private final ZipDirectory directory;
+    private final boolean owner;
 
     public JarLoader(File file) throws IOException {
-        this(new URL("jar:" + file.toURI().toURL() + "!/"), new JarFile(file));
+        this(file, false);
+    }
+
+    /**
+     * 创建JAR包资源加载器，mapped为true时直接映射JAR包的中央目录而不是通过{@link JarFile}读取条目，
+     * 打开的{@link JarFile}或者{@link ZipDirectory}归该加载器所有，调用{@link JarLoader#close()}时关闭。
+     *
+     * @param file   JAR包文件
+     * @param mapped 是否映射中央目录
+     * @throws IOException I/O 异常
+     */
+    public JarLoader(File file, boolean mapped) throws IOException {
+        this(new URL("jar:" + file.toURI().toURL() + "!/"), mapped ? null : new JarFile(file), mapped ? ZipDirectory.open(file) : null, true);
     }
 
     public JarLoader(URL jarURL) throws IOException {
@@ -36,58 +64,422 @@ public class JarLoader extends ResourceLoader implements Loader {
         }
         this.context = context;
         this.jarFile = jarFile;
+        this.directory = null;
+        this.owner = false;
+    }
+
+    /**
+     * 创建基于映射的中央目录的JAR包资源加载器，中央目录由调用者所有，关闭加载器不会关闭它，调用者在不再读取资源之后自行关闭。
+     *
+     * @param context   JAR包URL上下文
+     * @param directory JAR包的中央目录
+     */
+    public JarLoader(URL context, ZipDirectory directory) {
+        if (context == null) {
+            throw new IllegalArgumentException("context must not be null");
+        }
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must not be null");
+        }
+        this.context = context;
+        this.jarFile = null;
+        this.directory = directory;
+        this.owner = false;
+    }
+
+    private JarLoader(URL context, JarFile jarFile, ZipDirectory directory, boolean owner) {
+        this.context = context;
+        this.jarFile = jarFile;
+        this.directory = directory;
+        this.owner = owner;
     }
 
     public Enumeration<Resource> load(String path, boolean recursively, Filter filter) {
         while (path.startsWith("/")) path = path.substring(1);
         while (path.endsWith("/")) path = path.substring(0, path.length() - 1);
-        return new Enumerator(context, jarFile, path, recursively, filter != null ? filter : Filters.ALWAYS);
+        filter = Filters.normalize(filter);
+        if (filter == Filters.NEVER) {
+            return Collections.enumeration(Collections.<Resource>emptySet());
+        }
+        return new Enumerator(this, index(path, recursively, filter), path, recursively, filter);
+    }
+
+    /**
+     * 以{@link Stream}的方式加载指定路径的所有满足过滤条件的资源，资源流按照JAR包索引中的条目区间对半拆分，
+     * 当过滤器为{@link Filters#ALWAYS}且递归加载时资源流的大小是精确的。
+     *
+     * @param path        资源路径
+     * @param recursively 递归加载
+     * @param filter      过滤器
+     * @return 资源流
+     */
+    @Override
+    public Stream<Resource> stream(String path, boolean recursively, Filter filter) {
+        while (path.startsWith("/")) path = path.substring(1);
+        while (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        filter = Filters.normalize(filter);
+        if (filter == Filters.NEVER) {
+            return Stream.empty();
+        }
+        NameFilter nameFilter = Filters.byName(filter);
+        JarIndex index = index(path, recursively, filter);
+        String folder = path.length() > 0 ? path + "/" : path;
+        int from = index.lowerBound(folder);
+        int to = index.upperBound(folder, from);
+        Stream<Resource> stream = StreamSupport.stream(new Range(this, index, folder, recursively, filter, nameFilter, from, to), false);
+        if (path.length() > 0) {
+            int start = index.lowerBound(path);
+            int end = start;
+            while (end < from && index.get(end).equals(path)) end++;
+            if (end > start) {
+                Stream<Resource> exact = StreamSupport.stream(new Range(this, index, null, false, filter, nameFilter, start, end), false);
+                stream = Stream.concat(exact, stream);
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * 采用{@link ForkJoinPool}并行加载指定路径的所有满足过滤条件的资源，将JAR包索引中该路径对应的条目区间拆分成多个子区间，
+     * 各个子区间并行执行过滤器，最后按照索引顺序合并结果，所以结果的顺序与{@link JarLoader#load(String, boolean, Filter)}一致。
+     * 适用于条目数量巨大而且过滤器开销较高的场景，例如从根路径开始扫描的正则表达式过滤器。
+     * 不同的是该方法会在返回之前完成所有条目的过滤，所以返回的资源枚举器不再是惰性加载的。
+     *
+     * @param path        资源路径
+     * @param recursively 递归加载
+     * @param filter      过滤器
+     * @param pool        并行过滤所使用的线程池
+     * @return 资源枚举器
+     */
+    public Enumeration<Resource> load(String path, boolean recursively, Filter filter, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        while (path.startsWith("/")) path = path.substring(1);
+        while (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        filter = Filters.normalize(filter);
+        if (filter == Filters.NEVER) {
+            return Collections.enumeration(Collections.<Resource>emptySet());
+        }
+        NameFilter nameFilter = Filters.byName(filter);
+        JarIndex index = index(path, recursively, filter);
+        List<Resource> resources = new ArrayList<Resource>();
+        if (path.length() > 0) {
+            for (int i = index.lowerBound(path); i < index.size() && index.get(i).equals(path); i++) {
+                Resource resource = resource(index, i, filter, nameFilter);
+                if (resource != null) resources.add(resource);
+            }
+        }
+        String folder = path.length() > 0 ? path + "/" : path;
+        int from = index.lowerBound(folder);
+        int to = index.upperBound(folder, from);
+        resources.addAll(pool.invoke(new Task(this, index, folder, recursively, filter, nameFilter, from, to)));
+        return Collections.enumeration(resources);
+    }
+
+    /**
+     * 获取加载指定路径所需的条目索引，{@link JarFile}的索引包含所有条目而且会被缓存，
+     * 映射的中央目录则每次只为该路径下的条目构建索引，过滤器有字节名称过滤视图时一定不满足的条目也不会被解码。
+     *
+     * @param path        资源路径
+     * @param recursively 递归加载
+     * @param filter      过滤器
+     * @return 条目索引
+     */
+    private JarIndex index(String path, boolean recursively, Filter filter) {
+        return jarFile != null ? JarIndex.of(jarFile) : directory.index(path, recursively, Filters.byBytes(filter));
+    }
+
+    /**
+     * 过滤资源，过滤器为{@link Filters#ALWAYS}时不调用过滤器，如果过滤器可以仅根据名称做出判断则不构建URL，满足过滤条件时返回资源对象否则返回{@code null}。
+     * 资源对象持有{@link JarFile}或者{@link ZipDirectory}，以及索引中的{@link JarEntry}或者条目记录的位置，直接从中打开条目的输入流。
+     *
+     * @param index      条目索引
+     * @param position   条目在索引中的位置
+     * @param filter     过滤器
+     * @param nameFilter 过滤器的名称过滤视图，可以为{@code null}
+     * @return 满足过滤条件的资源对象，不满足时返回{@code null}
+     */
+    private Resource resource(JarIndex index, int position, Filter filter, NameFilter nameFilter) {
+        String name = index.get(position);
+        if (filter == Filters.ALWAYS) {
+            return jarFile != null ? new JarRes(context, jarFile, index.entry(position)) : new ZipRes(context, name, directory, index.record(position));
+        }
+        if (nameFilter != null) {
+            if (!nameFilter.filtrate(name)) {
+                return null;
+            }
+            return jarFile != null ? new JarRes(context, jarFile, index.entry(position)) : new ZipRes(context, name, directory, index.record(position));
+        }
+        try {
+            URL url = new URL(context, Uris.encodePath(name, Charset.defaultCharset()));
+            if (!filter.filtrate(name, url)) {
+                return null;
+            }
+            return jarFile != null ? new JarRes(context, url, jarFile, index.entry(position)) : new ZipRes(context, name, url, directory, index.record(position));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 关闭该加载器自己打开的{@link JarFile}或者{@link ZipDirectory}，由调用者传入的则不关闭。
+     * 关闭之后已经加载的资源不能再打开输入流，重复关闭没有影响。
+     *
+     * @throws IOException I/O 异常
+     */
+    public void close() throws IOException {
+        if (!owner) {
+            return;
+        }
+        if (jarFile != null) {
+            jarFile.close();
+        } else {
+            directory.close();
+        }
+    }
+
+    /**
+     * 递归加载时判断条目所在的各级子目录是否允许进入，记住最近一个允许进入的目录，
+     * 同一个目录下的后续条目不再重复判断。非线程安全，每个遍历者各自持有一个。
+     */
+    private static class Pruner {
+        private final String folder;
+        private final Filter filter;
+        private String accepted;
+
+        Pruner(String folder, Filter filter) {
+            this.folder = folder;
+            this.filter = filter;
+        }
+
+        /**
+         * 查找条目所在的不允许进入的最上层子目录
+         *
+         * @param name 条目名称
+         * @return 不允许进入的子目录，以"/"结尾，如果所有子目录都允许进入则返回{@code null}
+         */
+        String prune(String name) {
+            int from = accepted != null && name.startsWith(accepted) ? accepted.length() : folder.length();
+            for (int slash = name.indexOf('/', from); slash >= 0; slash = name.indexOf('/', slash + 1)) {
+                String directory = name.substring(0, slash + 1);
+                if (!Filters.descend(filter, directory)) {
+                    return directory;
+                }
+                accepted = directory;
+            }
+            return null;
+        }
     }
 
     private static class Enumerator extends ResourceEnumerator implements Enumeration<Resource> {
-        private final URL context;
-        private final String path;
+        private final JarLoader loader;
+        private final JarIndex index;
         private final String folder;
         private final boolean recursively;
         private final Filter filter;
-        private final Enumeration<JarEntry> entries;
+        private final NameFilter nameFilter;
+        private final Pruner pruner;
+        private final int end;
+        private int cursor;
+        private int limit;
 
-        Enumerator(URL context, JarFile jarFile, String path, boolean recursively, Filter filter) {
-            this.context = context;
-            this.path = path;
+        Enumerator(JarLoader loader, JarIndex index, String path, boolean recursively, Filter filter) {
+            this.loader = loader;
+            this.index = index;
             this.folder = path.endsWith("/") || path.length() == 0 ? path : path + "/";
             this.recursively = recursively;
             this.filter = filter;
-            this.entries = jarFile.entries();
+            this.nameFilter = Filters.byName(filter);
+            this.pruner = new Pruner(folder, filter);
+            // 先遍历与路径完全相同的条目区间，再遍历以目录为前缀的条目区间
+            int from = index.lowerBound(folder);
+            this.end = index.upperBound(folder, from);
+            if (path.length() > 0 && !path.endsWith("/")) {
+                this.cursor = index.lowerBound(path);
+                this.limit = cursor;
+                while (limit < from && index.get(limit).equals(path)) limit++;
+                if (cursor == limit) {
+                    this.cursor = from;
+                    this.limit = end;
+                }
+            } else {
+                this.cursor = from;
+                this.limit = end;
+            }
         }
 
         public boolean hasMoreElements() {
             if (next != null) {
                 return true;
             }
-            while (entries.hasMoreElements()) {
-                JarEntry jarEntry = entries.nextElement();
-                if (jarEntry.isDirectory()) {
+            while (true) {
+                if (cursor >= limit) {
+                    if (limit == end) {
+                        return false;
+                    }
+                    cursor = index.lowerBound(folder, limit);
+                    limit = end;
+                    continue;
+                }
+                String name = index.get(cursor);
+                if (limit == end && !recursively) {
+                    int slash = name.indexOf('/', folder.length());
+                    if (slash >= 0) {
+                        // 非递归加载时直接跳过整个子目录的条目区间
+                        cursor = index.upperBound(name.substring(0, slash + 1), cursor);
+                        continue;
+                    }
+                }
+                if (limit == end && recursively) {
+                    String directory = pruner.prune(name);
+                    if (directory != null) {
+                        // 过滤器不允许进入的目录直接跳过整个条目区间
+                        cursor = index.upperBound(directory, cursor);
+                        continue;
+                    }
+                }
+                next = loader.resource(index, cursor++, filter, nameFilter);
+                if (next != null) {
+                    return true;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * 并行过滤JAR包索引中一段条目区间的子任务，区间足够小时直接过滤，否则对半拆分，合并时左半区间的结果在前。
+     */
+    private static class Task extends RecursiveTask<List<Resource>> {
+        private static final long serialVersionUID = 1L;
+        private static final int THRESHOLD = 1024;
+
+        private final JarLoader loader;
+        private final JarIndex index;
+        private final String folder;
+        private final boolean recursively;
+        private final Filter filter;
+        private final NameFilter nameFilter;
+        private final int from;
+        private final int to;
+
+        Task(JarLoader loader, JarIndex index, String folder, boolean recursively, Filter filter, NameFilter nameFilter, int from, int to) {
+            this.loader = loader;
+            this.index = index;
+            this.folder = folder;
+            this.recursively = recursively;
+            this.filter = filter;
+            this.nameFilter = nameFilter;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Resource> compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                Task left = new Task(loader, index, folder, recursively, filter, nameFilter, from, mid);
+                Task right = new Task(loader, index, folder, recursively, filter, nameFilter, mid, to);
+                left.fork();
+                List<Resource> resources = right.compute();
+                List<Resource> merged = left.join();
+                merged.addAll(resources);
+                return merged;
+            }
+            List<Resource> resources = new ArrayList<Resource>();
+            Pruner pruner = new Pruner(folder, filter);
+            for (int i = from; i < to; i++) {
+                String name = index.get(i);
+                if (!recursively && name.indexOf('/', folder.length()) >= 0) {
                     continue;
                 }
-                String name = jarEntry.getName();
-                if (name.equals(path)
-                        || (recursively && name.startsWith(folder))
-                        || (!recursively && name.startsWith(folder) && name.indexOf('/', folder.length()) < 0)) {
-                    try {
-                        URL url = new URL(context, Uris.encodePath(name, Charset.defaultCharset()));
-                        if (filter.filtrate(name, url)) {
-                            next = new Res(name, url);
-                            return true;
-                        }
-                    } catch (Exception e) {
-                        throw new IllegalStateException(e);
+                if (recursively) {
+                    String directory = pruner.prune(name);
+                    if (directory != null) {
+                        i = Math.min(index.upperBound(directory, i), to) - 1;
+                        continue;
                     }
                 }
+                Resource resource = loader.resource(index, i, filter, nameFilter);
+                if (resource != null) resources.add(resource);
+            }
+            return resources;
+        }
+    }
+
+    /**
+     * 按照JAR包索引中的条目区间拆分的资源流拆分器，目录为{@code null}时表示区间中的条目就是资源路径本身
+     */
+    private static class Range implements Spliterator<Resource> {
+        private final JarLoader loader;
+        private final JarIndex index;
+        private final String folder;
+        private final boolean recursively;
+        private final Filter filter;
+        private final NameFilter nameFilter;
+        private final Pruner pruner;
+        private final boolean sized;
+        private int from;
+        private final int to;
+
+        Range(JarLoader loader, JarIndex index, String folder, boolean recursively, Filter filter, NameFilter nameFilter, int from, int to) {
+            this.loader = loader;
+            this.index = index;
+            this.folder = folder;
+            this.recursively = recursively;
+            this.filter = filter;
+            this.nameFilter = nameFilter;
+            this.pruner = folder != null && recursively ? new Pruner(folder, filter) : null;
+            this.sized = filter == Filters.ALWAYS && (recursively || folder == null);
+            this.from = from;
+            this.to = to;
+        }
+
+        public boolean tryAdvance(Consumer<? super Resource> action) {
+            while (from < to) {
+                String name = index.get(from);
+                if (folder != null && !recursively) {
+                    int slash = name.indexOf('/', folder.length());
+                    if (slash >= 0) {
+                        from = Math.min(index.upperBound(name.substring(0, slash + 1), from), to);
+                        continue;
+                    }
+                }
+                if (pruner != null) {
+                    String directory = pruner.prune(name);
+                    if (directory != null) {
+                        from = Math.min(index.upperBound(directory, from), to);
+                        continue;
+                    }
+                }
+                Resource resource = loader.resource(index, from++, filter, nameFilter);
+                if (resource != null) {
+                    action.accept(resource);
+                    return true;
+                }
             }
             return false;
         }
 
+        public Spliterator<Resource> trySplit() {
+            int mid = (from + to) >>> 1;
+            if (mid <= from) {
+                return null;
+            }
+            Range prefix = new Range(loader, index, folder, recursively, filter, nameFilter, from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return to - from;
+        }
+
+        public int characteristics() {
+            int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+            return sized ? characteristics | Spliterator.SIZED | Spliterator.SUBSIZED : characteristics;
+        }
     }
 
 }
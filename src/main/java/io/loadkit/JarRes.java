@@ -0,0 +1,94 @@
+package io.loadkit;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * JAR包资源，持有其所在的{@link JarFile}以及扫描时得到的{@link JarEntry}，直接从中打开条目的输入流，
+ * 而不是通过{@link URL#openStream()}解析"jar:"地址、查找全局的{@link java.net.JarURLConnection}缓存并创建连接对象。
+ * URL地址依然惰性构建，供需要的调用者使用。
+ * 注意输入流依赖于{@link JarFile}处于打开状态，关闭资源加载器所使用的{@link JarFile}之后需要通过URL地址读取。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 17:10
+ */
+public class JarRes extends LazyRes implements Resource {
+    private final JarFile jarFile;
+    private final JarEntry jarEntry;
+
+    public JarRes(URL context, String name, JarFile jarFile) {
+        super(context, name);
+        if (jarFile == null) {
+            throw new IllegalArgumentException("jarFile must not be null");
+        }
+        this.jarFile = jarFile;
+        this.jarEntry = null;
+    }
+
+    public JarRes(URL context, String name, URL url, JarFile jarFile) {
+        super(context, name, url);
+        if (jarFile == null) {
+            throw new IllegalArgumentException("jarFile must not be null");
+        }
+        this.jarFile = jarFile;
+        this.jarEntry = null;
+    }
+
+    /**
+     * 创建持有{@link JarEntry}的JAR包资源，打开输入流时直接使用该条目而不再按名称查找
+     *
+     * @param context  JAR包URL上下文
+     * @param jarFile  JAR包
+     * @param jarEntry 从该JAR包中得到的条目
+     */
+    public JarRes(URL context, JarFile jarFile, JarEntry jarEntry) {
+        super(context, name(jarEntry));
+        if (jarFile == null) {
+            throw new IllegalArgumentException("jarFile must not be null");
+        }
+        this.jarFile = jarFile;
+        this.jarEntry = jarEntry;
+    }
+
+    public JarRes(URL context, URL url, JarFile jarFile, JarEntry jarEntry) {
+        super(context, name(jarEntry), url);
+        if (jarFile == null) {
+            throw new IllegalArgumentException("jarFile must not be null");
+        }
+        this.jarFile = jarFile;
+        this.jarEntry = jarEntry;
+    }
+
+    private static String name(JarEntry jarEntry) {
+        if (jarEntry == null) {
+            throw new IllegalArgumentException("jarEntry must not be null");
+        }
+        return jarEntry.getName();
+    }
+
+    /**
+     * 获取资源所在的JAR包
+     *
+     * @return 资源所在的JAR包
+     */
+    public JarFile getJarFile() {
+        return jarFile;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        if (jarEntry != null) {
+            return jarFile.getInputStream(jarEntry);
+        }
+        JarEntry entry = jarFile.getJarEntry(getName());
+        if (entry == null) {
+            throw new FileNotFoundException("JAR entry " + getName() + " not found in " + jarFile.getName());
+        }
+        return jarFile.getInputStream(entry);
+    }
+
+}
@@ -0,0 +1,68 @@
+package io.loadkit;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
+
+/**
+ * 惰性资源，只保存URL上下文和资源名称，直到第一次调用{@link LazyRes#getUrl()}时才构建资源的URL地址。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 10:25
+ */
+public class LazyRes extends Res implements Resource {
+    private final URL context;
+    private volatile URL url;
+
+    public LazyRes(URL context, String name) {
+        super(name);
+        if (context == null) {
+            throw new IllegalArgumentException("context must not be null");
+        }
+        this.context = context;
+    }
+
+    /**
+     * 供已经构建好URL地址的子类使用，例如过滤器需要URL地址时资源加载器已经构建过一次。
+     *
+     * @param context URL上下文
+     * @param name    资源名称
+     * @param url     资源的URL地址
+     */
+    protected LazyRes(URL context, String name, URL url) {
+        this(context, name);
+        if (url == null) {
+            throw new IllegalArgumentException("url must not be null");
+        }
+        this.url = url;
+    }
+
+    @Override
+    public URL getUrl() {
+        URL url = this.url;
+        if (url == null) {
+            try {
+                url = new URL(context, Uris.encodePath(getName(), Charset.defaultCharset()));
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException(e);
+            }
+            this.url = url;
+        }
+        return url;
+    }
+
+    @Override
+    protected String toExternalForm() {
+        URL url = this.url;
+        if (url != null) {
+            return url.toExternalForm();
+        }
+        // 上下文以"/"结尾时相对路径直接拼接在其后面，与URL解析的结果一致，无需构建URL对象。
+        String base = context.toExternalForm();
+        if (base.endsWith("/")) {
+            return base + Uris.encodePath(getName(), Charset.defaultCharset());
+        }
+        return getUrl().toExternalForm();
+    }
+
+}
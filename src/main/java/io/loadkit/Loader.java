@@ -1,7 +1,17 @@
 package io.loadkit;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 资源加载器，充分采用惰性加载的逻辑，让资源的加载延后到{@link Enumeration#hasMoreElements()}调用时，避免无用的提前全部预加载。
@@ -52,4 +62,90 @@ public interface Loader {
      */
     Enumeration<Resource> load(String path, boolean recursively, Filter filter) throws IOException;
 
+    /**
+     * 以{@link Stream}的方式加载指定路径的所有资源，等效于Loader.stream(path, false, Filters.ALWAYS)的调用。
+     *
+     * @param path 资源路径
+     * @return 资源流
+     * @throws IOException I/O 异常
+     */
+    default Stream<Resource> stream(String path) throws IOException {
+        return stream(path, false, Filters.ALWAYS);
+    }
+
+    /**
+     * 以{@link Stream}的方式加载指定路径的所有资源，等效于Loader.stream(path, recursively, Filters.ALWAYS)的调用。
+     *
+     * @param path        资源路径
+     * @param recursively 递归加载
+     * @return 资源流
+     * @throws IOException I/O 异常
+     */
+    default Stream<Resource> stream(String path, boolean recursively) throws IOException {
+        return stream(path, recursively, Filters.ALWAYS);
+    }
+
+    /**
+     * 以{@link Stream}的方式加载指定路径的所有满足过滤条件的资源，等效于Loader.stream(path, true, filter)的调用。
+     *
+     * @param path   资源路径
+     * @param filter 过滤器
+     * @return 资源流
+     * @throws IOException I/O 异常
+     */
+    default Stream<Resource> stream(String path, Filter filter) throws IOException {
+        return stream(path, true, filter);
+    }
+
+    /**
+     * 以{@link Stream}的方式加载指定路径的所有满足过滤条件的资源，资源流和资源枚举器一样是惰性加载的。
+     * 缺省实现只是对{@link Loader#load(String, boolean, Filter)}的包装，并行时只能按批次拆分，
+     * 资源加载器可以重写该方法提供真正可拆分的{@link Spliterator}让{@link Stream#parallel()}发挥作用。
+     * 资源流可能持有打开的目录等系统资源，没有消费完毕的资源流需要调用{@link Stream#close()}关闭。
+     *
+     * @param path        资源路径
+     * @param recursively 递归加载
+     * @param filter      过滤器
+     * @return 资源流
+     * @throws IOException I/O 异常
+     */
+    default Stream<Resource> stream(String path, boolean recursively, Filter filter) throws IOException {
+        final Enumeration<Resource> resources = load(path, recursively, filter);
+        Spliterator<Resource> spliterator = new Spliterators.AbstractSpliterator<Resource>(Long.MAX_VALUE, Spliterator.NONNULL) {
+            public boolean tryAdvance(Consumer<? super Resource> action) {
+                if (resources.hasMoreElements()) {
+                    action.accept(resources.nextElement());
+                    return true;
+                }
+                return false;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * 批量加载多个路径（或模式表达式）的资源，按照传入的顺序返回每个路径对应的资源列表，重复的路径只加载一次。
+     * 缺省实现只是依次调用{@link Loader#load(String)}，模式表达式资源加载器会将根路径相互嵌套的表达式合并成一次加载，
+     * 避免为每个表达式重复遍历classpath以及重复打开相同的JAR包。与{@link Loader#load(String)}不同，该方法不是惰性加载的。
+     *
+     * @param paths 资源路径（或模式表达式）
+     * @return 每个路径对应的资源列表
+     * @throws IOException I/O 异常
+     */
+    default Map<String, List<Resource>> loadAll(Collection<String> paths) throws IOException {
+        Map<String, List<Resource>> result = new LinkedHashMap<String, List<Resource>>();
+        for (String path : paths) {
+            if (result.containsKey(path)) {
+                continue;
+            }
+            List<Resource> resources = new ArrayList<Resource>();
+            Enumeration<Resource> enumeration = load(path);
+            while (enumeration.hasMoreElements()) {
+                resources.add(enumeration.nextElement());
+            }
+            result.put(path, resources);
+        }
+        return result;
+    }
+
 }
@@ -3,6 +3,9 @@ package io.loadkit;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.JarFile;
 
 /**
@@ -39,6 +42,36 @@ public abstract class Loaders {
         return new StdLoader(classLoader);
     }
 
+    /**
+     * 创建并发扫描的 classpath 资源加载器，每个classpath根路径作为一个独立的任务交给executor执行，
+     * 最多同时扫描{@link StdLoader#DEFAULT_CONCURRENCY}个根路径，而且按照classpath的顺序返回资源。
+     * 在JDK 21及以上的版本中推荐使用{@code Executors.newVirtualThreadPerTaskExecutor()}作为executor。
+     * 示例：
+     * <p>1. Loaders.std(classLoader, executor).load("", true); 并发扫描classpath中的所有资源。</p>
+     *
+     * @param classLoader 类加载器
+     * @param executor    执行扫描任务的执行器
+     * @return classpath 资源加载器
+     */
+    public static Loader std(ClassLoader classLoader, Executor executor) {
+        return new StdLoader(classLoader, executor);
+    }
+
+    /**
+     * 创建并行过滤JAR包条目的 classpath 资源加载器，根路径之间按照classpath的顺序依次加载，
+     * 每个JAR包根路径的条目则在pool中并行过滤，资源的顺序与{@link Loaders#std(ClassLoader)}一致，
+     * 适用于JAR包条目数量巨大而且过滤器开销较高的场景，可以作为其他委派加载器的delegate。
+     * 示例：
+     * <p>1. Loaders.regex(Loaders.parallel(classLoader, ForkJoinPool.commonPool())).load(".*Loader\\.class"); 并行过滤JAR包中的所有条目。</p>
+     *
+     * @param classLoader 类加载器
+     * @param pool        并行过滤JAR包条目所使用的线程池
+     * @return classpath 资源加载器
+     */
+    public static Loader parallel(ClassLoader classLoader, ForkJoinPool pool) {
+        return new StdLoader(classLoader, pool);
+    }
+
     /**
      * 创建按包名来加载的资源加载器，这是一个委派加载器，自身并没有资源加载逻辑而是委派给实际的资源加载器，
      * 在这个创建方法中，实际委派给{@link Loaders#std()}资源加载器。
@@ -203,6 +236,32 @@ public abstract class Loaders {
         return new JarLoader(file);
     }
 
+    /**
+     * 创建JAR包资源加载器，mapped为true时直接映射JAR包的中央目录而不是通过{@link JarFile}读取条目，
+     * 只为加载路径下的条目解码名称，也不校验签名，适用于条目数量巨大的JAR包的扫描。
+     * 返回的加载器拥有其打开的文件，不再使用时需要调用{@link JarLoader#close()}关闭。
+     *
+     * @param file   JAR包文件
+     * @param mapped 是否映射中央目录
+     * @return JAR包资源加载器
+     * @throws IOException I/O 异常
+     */
+    public static JarLoader jar(File file, boolean mapped) throws IOException {
+        return new JarLoader(file, mapped);
+    }
+
+    /**
+     * 创建基于映射的中央目录的JAR包资源加载器，中央目录由调用者打开和关闭，加载器不会关闭它，
+     * 适用于多个加载器共享同一个中央目录的场景。
+     *
+     * @param context   JAR包URL上下文
+     * @param directory JAR包的中央目录
+     * @return JAR包资源加载器
+     */
+    public static Loader jar(URL context, ZipDirectory directory) {
+        return new JarLoader(context, directory);
+    }
+
     /**
      * 创建JAR包资源加载器
      *
@@ -223,4 +282,53 @@ public abstract class Loaders {
     public static Loader jar(URL context, JarFile jarFile) {
         return new JarLoader(context, jarFile);
     }
+
+    /**
+     * 创建预取资源加载器，在后台线程中遍历委派的资源加载器返回的资源，让资源扫描与资源处理同时进行，
+     * 预取深度为{@link PrefetchingLoader#DEFAULT_DEPTH}。
+     * 示例：
+     * <p>1. Loaders.prefetch(Loaders.pkg()).load("io.loadkit", true); 边扫描边处理io.loadkit包以及子包的所有资源。</p>
+     *
+     * @param delegate 委派的资源加载器
+     * @return 预取资源加载器
+     */
+    public static Loader prefetch(Loader delegate) {
+        return new PrefetchingLoader(delegate);
+    }
+
+    /**
+     * 创建预取资源加载器，并且指定预取深度
+     *
+     * @param delegate 委派的资源加载器
+     * @param depth    预取深度
+     * @return 预取资源加载器
+     */
+    public static Loader prefetch(Loader delegate, int depth) {
+        return new PrefetchingLoader(delegate, depth);
+    }
+
+    /**
+     * 创建缓存资源加载器，相同的加载请求直接返回缓存的结果，最多缓存{@link CachingLoader#DEFAULT_MAX_ENTRIES}个条目而且永不过期。
+     * 示例：
+     * <p>1. Loaders.cached(Loaders.std()).load("META-INF/spring", true); 第一次加载时扫描classpath，之后直接返回缓存的结果。</p>
+     *
+     * @param delegate 委派的资源加载器
+     * @return 缓存资源加载器
+     */
+    public static Loader cached(Loader delegate) {
+        return new CachingLoader(delegate);
+    }
+
+    /**
+     * 创建缓存资源加载器，并且指定最大缓存条目数量以及条目的存活时间
+     *
+     * @param delegate   委派的资源加载器
+     * @param maxEntries 最大缓存条目数量
+     * @param ttl        条目的存活时间，0代表永不过期
+     * @param unit       存活时间的单位
+     * @return 缓存资源加载器
+     */
+    public static Loader cached(Loader delegate, int maxEntries, long ttl, TimeUnit unit) {
+        return new CachingLoader(delegate, maxEntries, ttl, unit);
+    }
 }
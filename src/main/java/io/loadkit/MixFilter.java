@@ -1,12 +1,18 @@
 package io.loadkit;
 
+import java.net.URL;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 复合过滤器,实际上内部维护一个过滤器的{@link LinkedHashSet}集合，提供添加/删除以及链式拼接的方法来混合多个子过滤器，该过滤器的具体逻辑由子类拓展。
+ * 每次添加/删除之后都会生成子过滤器的数组快照，过滤时直接遍历该快照，避免每过滤一个资源都复制一次集合。
+ * 开启自适应模式之后，会在过滤过程中统计每个子过滤器做出决定性判断的比率以及耗时，
+ * 并定期按照单位耗时的决定性判断比率重新排序，让既便宜又有效的子过滤器先执行。
  *
  * @author Payne 646742615@qq.com
  * 2018/12/3 10:33
@@ -14,7 +20,13 @@ import java.util.Set;
  * @see AnyFilter
  */
 public abstract class MixFilter implements Filter {
+    /**
+     * 子过滤器集合，子类如果直接修改该集合则需要调用{@link MixFilter#refresh()}更新快照
+     */
     protected final Set<Filter> filters;
+    private volatile Filter[] snapshot;
+    private volatile boolean adaptive;
+    private volatile Ranking ranking;
 
     protected MixFilter(Filter... filters) {
         this(Arrays.asList(filters));
@@ -22,6 +34,7 @@ public abstract class MixFilter implements Filter {
 
     protected MixFilter(Collection<? extends Filter> filters) {
         this.filters = filters != null ? new LinkedHashSet<Filter>(filters) : new LinkedHashSet<Filter>();
+        this.snapshot = this.filters.toArray(new Filter[0]);
     }
 
     /**
@@ -30,8 +43,10 @@ public abstract class MixFilter implements Filter {
      * @param filter 过滤器
      * @return 添加成功：true    否则：false 即代表重复添加
      */
-    public boolean add(Filter filter) {
-        return filters.add(filter);
+    public synchronized boolean add(Filter filter) {
+        boolean added = filters.add(filter);
+        if (added) refresh();
+        return added;
     }
 
     /**
@@ -40,8 +55,71 @@ public abstract class MixFilter implements Filter {
      * @param filter 过滤器
      * @return 删除成功：true    否则：false 即代表已不存在
      */
-    public boolean remove(Filter filter) {
-        return filters.remove(filter);
+    public synchronized boolean remove(Filter filter) {
+        boolean removed = filters.remove(filter);
+        if (removed) refresh();
+        return removed;
+    }
+
+    /**
+     * 根据子过滤器集合重新生成快照
+     */
+    protected synchronized void refresh() {
+        snapshot = filters.toArray(new Filter[0]);
+    }
+
+    /**
+     * 获取子过滤器的数组快照，按照添加的顺序排列，调用者不能修改该数组。
+     * 子过滤器发生增删时会生成新的快照，所以可以用快照的引用判断子过滤器是否发生过变化。
+     *
+     * @return 子过滤器的数组快照
+     */
+    protected Filter[] snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return 是否开启自适应模式
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * 设置是否开启自适应模式，开启之后子过滤器的执行顺序不再是添加的顺序，适用于子过滤器较多而且开销和选择性差异较大的场景。
+     * 统计数据的更新没有同步，多个线程同时过滤时会丢失部分计数，但只影响排序的准确性，不影响过滤的结果。
+     * 排序时先把各个子过滤器的得分复制出来再排序，同一时刻只有一个线程排序，其他线程照常按照旧的顺序过滤。
+     *
+     * @param adaptive 是否开启自适应模式
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+        this.ranking = null;
+    }
+
+    /**
+     * 依次判断子过滤器，直到有一个子过滤器的结果等于decisive，自适应模式下按照统计数据排序之后的顺序判断。
+     *
+     * @param filters  子过滤器
+     * @param name     资源名称
+     * @param url      资源URL
+     * @param decisive 决定性的结果，对于ALL逻辑为false，对于ANY逻辑为true
+     * @return 是否有子过滤器的结果等于decisive
+     */
+    protected boolean find(Filter[] filters, String name, URL url, boolean decisive) {
+        if (!adaptive) {
+            for (Filter filter : filters) {
+                if (filter.filtrate(name, url) == decisive) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        Ranking ranking = this.ranking;
+        if (ranking == null || ranking.source != filters) {
+            this.ranking = ranking = new Ranking(filters);
+        }
+        return ranking.find(name, url, decisive);
     }
 
     /**
@@ -53,4 +131,123 @@ public abstract class MixFilter implements Filter {
      */
     public abstract MixFilter mix(Filter filter);
 
+    /**
+     * 自适应排序，每过滤{@link Ranking#PERIOD}个资源按照"决定性判断的比率 / 平均耗时"从高到低重新排序一次，
+     * 为了降低计时本身的开销，只对其中{@link Ranking#SAMPLING}分之一的过滤计时，
+     * 每次排序之后统计数据减半，使得排序能够跟上资源分布的变化。
+     */
+    static class Ranking {
+        private static final int PERIOD = 1024;
+        private static final int SAMPLING = 64;
+
+        private final Filter[] source;
+        private final AtomicBoolean ranking = new AtomicBoolean();
+        private volatile Stat[] order;
+        private int ticks;
+
+        Ranking(Filter[] source) {
+            this.source = source;
+            Stat[] order = new Stat[source.length];
+            for (int i = 0; i < source.length; i++) {
+                order[i] = new Stat(source[i]);
+            }
+            this.order = order;
+        }
+
+        boolean find(String name, URL url, boolean decisive) {
+            return find(name, url, false, decisive);
+        }
+
+        /**
+         * 按名称过滤，所有子过滤器必须是{@link NameFilter}
+         */
+        boolean find(String name, boolean decisive) {
+            return find(name, null, true, decisive);
+        }
+
+        private boolean find(String name, URL url, boolean byName, boolean decisive) {
+            int tick = ++ticks;
+            boolean timing = tick % SAMPLING == 0;
+            Stat[] order = this.order;
+            boolean found = false;
+            for (Stat stat : order) {
+                long start = timing ? System.nanoTime() : 0L;
+                boolean result = byName ? ((NameFilter) stat.filter).filtrate(name) : stat.filter.filtrate(name, url);
+                if (timing) {
+                    stat.nanos += System.nanoTime() - start;
+                    stat.timings++;
+                }
+                stat.evaluations++;
+                if (result == decisive) {
+                    stat.decisions++;
+                    found = true;
+                    break;
+                }
+            }
+            if (tick % PERIOD == 0) {
+                rank(order);
+            }
+            return found;
+        }
+
+        /**
+         * 重新排序，其他线程在排序期间仍然会修改统计数据，所以先把得分复制到本次排序独有的数组中，
+         * 保证排序过程中比较的结果前后一致。已经有线程在排序时直接放弃本次排序。
+         */
+        private void rank(Stat[] order) {
+            if (!ranking.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                final double[] scores = new double[order.length];
+                Integer[] indexes = new Integer[order.length];
+                for (int i = 0; i < order.length; i++) {
+                    scores[i] = order[i].score();
+                    indexes[i] = i;
+                }
+                Arrays.sort(indexes, new Comparator<Integer>() {
+                    public int compare(Integer a, Integer b) {
+                        return Double.compare(scores[b], scores[a]);
+                    }
+                });
+                Stat[] ranked = new Stat[order.length];
+                for (int i = 0; i < indexes.length; i++) {
+                    ranked[i] = order[indexes[i]];
+                    ranked[i].decay();
+                }
+                this.order = ranked;
+            } finally {
+                ranking.set(false);
+            }
+        }
+    }
+
+    private static class Stat {
+        private final Filter filter;
+        private long evaluations;
+        private long decisions;
+        private long timings;
+        private long nanos;
+
+        Stat(Filter filter) {
+            this.filter = filter;
+        }
+
+        /**
+         * 平滑处理之后的"决定性判断的比率 / 平均耗时"，没有计时数据的子过滤器按照1纳秒计算，让其有机会排到前面被计时
+         */
+        double score() {
+            double rate = (decisions + 1.0) / (evaluations + 2.0);
+            double cost = timings == 0 ? 1.0 : Math.max(1.0, (double) nanos / timings);
+            return rate / cost;
+        }
+
+        void decay() {
+            evaluations >>= 1;
+            decisions >>= 1;
+            timings >>= 1;
+            nanos >>= 1;
+        }
+    }
+
 }
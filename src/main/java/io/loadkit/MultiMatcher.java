@@ -0,0 +1,287 @@
+package io.loadkit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 多模式匹配器，将一组过滤器中的{@link AntFilter}和{@link RegexFilter}编译成一个整体，用于{@link AnyFilter}的OR逻辑匹配：
+ * <p>1. ANT风格路径表达式按照其开头或结尾的字面量分别建立前缀树和后缀树，资源名称只需从头和从尾各走一遍，
+ * 只有开头或结尾的字面量吻合的表达式才会交给其{@link AntMatcher}做最终判断；
+ * 首尾都不是字面量的表达式则取其必然包含的最长字面量构建Aho-Corasick自动机，资源名称扫描一遍即可找出候选的表达式；
+ * 没有任何字面量的表达式总是需要判断。</p>
+ * <p>2. 没有匹配标志、反向引用和命名分组的正则表达式合并成一个多选分支的正则表达式，每个资源名称只需要一次匹配。</p>
+ * <p>3. 其余无法编译的过滤器通过{@link MultiMatcher#getOthers()}返回，由调用者按原来的方式逐个判断。</p>
+ * 编译之后的匹配器是不可变的，可以被多个线程同时使用。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 14:30
+ */
+public class MultiMatcher {
+    /**
+     * 可编译的过滤器数量达到该阈值时编译才有收益，数量较少时逐个判断反而更快
+     */
+    public static final int THRESHOLD = 8;
+
+    private static final Pattern UNMERGEABLE = Pattern.compile("\\\\[1-9]|\\\\k<|\\(\\?<[^=!]|\\(\\?[a-zA-Z-]*x");
+
+    private final AntMatcher[] matchers;
+    private final Trie prefixes;
+    private final Trie suffixes;
+    private final Trie infixes;
+    private final AntMatcher[] unconditionals;
+    private final Pattern[] patterns;
+    private final Filter[] others;
+
+    public MultiMatcher(Filter... filters) {
+        if (filters == null) {
+            throw new IllegalArgumentException("filters must not be null");
+        }
+        List<AntMatcher> matchers = new ArrayList<AntMatcher>();
+        List<AntMatcher> unconditionals = new ArrayList<AntMatcher>();
+        List<String> regexes = new ArrayList<String>();
+        List<Pattern> patterns = new ArrayList<Pattern>();
+        List<Filter> others = new ArrayList<Filter>();
+        Trie prefixes = new Trie();
+        Trie suffixes = new Trie();
+        Trie infixes = new Trie();
+        for (Filter filter : filters) {
+            if (filter != null && filter.getClass() == AntFilter.class) {
+                AntMatcher matcher = ((AntFilter) filter).getMatcher();
+                String prefix = matcher.prefix();
+                String suffix = matcher.suffix();
+                String literal = matcher.literal();
+                int id = matchers.size();
+                if (prefix.length() > 0 && prefix.length() >= suffix.length()) {
+                    prefixes.add(prefix, id);
+                } else if (suffix.length() > 0) {
+                    suffixes.add(new StringBuilder(suffix).reverse().toString(), id);
+                } else if (literal.length() > 0) {
+                    infixes.add(literal, id);
+                } else {
+                    unconditionals.add(matcher);
+                    continue;
+                }
+                matchers.add(matcher);
+            } else if (filter != null && filter.getClass() == RegexFilter.class) {
+                Pattern pattern = ((RegexFilter) filter).getPattern();
+                if (mergeable(pattern)) {
+                    regexes.add(pattern.pattern());
+                } else {
+                    patterns.add(pattern);
+                }
+            } else {
+                others.add(filter);
+            }
+        }
+        if (regexes.size() == 1) {
+            patterns.add(0, Pattern.compile(regexes.get(0)));
+        } else if (regexes.size() > 1) {
+            StringBuilder regex = new StringBuilder();
+            for (String r : regexes) {
+                if (regex.length() > 0) regex.append('|');
+                regex.append("(?:").append(r).append(')');
+            }
+            patterns.add(0, Pattern.compile(regex.toString()));
+        }
+        infixes.link();
+        this.matchers = matchers.toArray(new AntMatcher[0]);
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+        this.infixes = infixes;
+        this.unconditionals = unconditionals.toArray(new AntMatcher[0]);
+        this.patterns = patterns.toArray(new Pattern[0]);
+        this.others = others.toArray(new Filter[0]);
+    }
+
+    /**
+     * 判断过滤器中可编译的{@link AntFilter}和{@link RegexFilter}是否达到{@link MultiMatcher#THRESHOLD}，即是否值得编译
+     *
+     * @param filters 过滤器
+     * @return true: 值得编译  false: 不值得编译
+     */
+    public static boolean worthwhile(Filter... filters) {
+        int count = 0;
+        for (Filter filter : filters) {
+            if (filter != null && (filter.getClass() == AntFilter.class || filter.getClass() == RegexFilter.class) && ++count >= THRESHOLD) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断正则表达式能否和其他正则表达式合并成一个多选分支，带有匹配标志的、使用反向引用或命名分组的、
+     * 开启注释模式的以及"\Q"没有闭合的正则表达式在合并之后语义可能发生变化，所以不合并。
+     */
+    private static boolean mergeable(Pattern pattern) {
+        String regex = pattern.pattern();
+        if (pattern.flags() != 0 || UNMERGEABLE.matcher(regex).find()) {
+            return false;
+        }
+        int quote = regex.lastIndexOf("\\Q");
+        return quote < 0 || regex.indexOf("\\E", quote) >= 0;
+    }
+
+    /**
+     * 判断资源名称是否满足任意一个编译过的过滤器，不包括{@link MultiMatcher#getOthers()}
+     *
+     * @param name 资源名称
+     * @return true: 满足  false: 不满足
+     */
+    public boolean matches(String name) {
+        if (prefixes.prefixes(name, false, matchers) || suffixes.prefixes(name, true, matchers) || infixes.contains(name, matchers)) {
+            return true;
+        }
+        for (AntMatcher matcher : unconditionals) {
+            if (matcher.matches(name)) {
+                return true;
+            }
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取无法编译的过滤器，保持原来的顺序
+     *
+     * @return 无法编译的过滤器
+     */
+    public Filter[] getOthers() {
+        return others.clone();
+    }
+
+    /**
+     * 字面量字典树，每个节点的子节点按字符排序之后二分查找，节点的输出为以该节点结尾的字面量对应的表达式。
+     * 调用{@link Trie#link()}计算失败转移之后即成为Aho-Corasick自动机，此时节点的输出也包含了失败节点的输出。
+     */
+    private static class Trie {
+        private static final char[] EMPTY_KEYS = new char[0];
+        private static final int[] EMPTY_IDS = new int[0];
+
+        private char[][] keys = {EMPTY_KEYS};
+        private int[][] children = {EMPTY_IDS};
+        private int[][] outputs = {EMPTY_IDS};
+        private int[] fails = {0};
+        private int size = 1;
+
+        void add(String literal, int id) {
+            int node = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                char c = literal.charAt(i);
+                int index = Arrays.binarySearch(keys[node], c);
+                if (index >= 0) {
+                    node = children[node][index];
+                    continue;
+                }
+                int child = size++;
+                if (child == keys.length) {
+                    keys = Arrays.copyOf(keys, child * 2);
+                    children = Arrays.copyOf(children, child * 2);
+                    outputs = Arrays.copyOf(outputs, child * 2);
+                }
+                keys[child] = EMPTY_KEYS;
+                children[child] = EMPTY_IDS;
+                outputs[child] = EMPTY_IDS;
+                int at = -index - 1;
+                keys[node] = insert(keys[node], at, c);
+                children[node] = insert(children[node], at, child);
+                node = child;
+            }
+            outputs[node] = insert(outputs[node], outputs[node].length, id);
+        }
+
+        /**
+         * 按广度优先的顺序计算失败转移，同时把失败节点的输出合并进来
+         */
+        void link() {
+            fails = new int[size];
+            int[] queue = new int[size];
+            int head = 0;
+            int tail = 0;
+            for (int child : children[0]) queue[tail++] = child;
+            while (head < tail) {
+                int node = queue[head++];
+                for (int i = 0; i < keys[node].length; i++) {
+                    int child = children[node][i];
+                    int fail = fails[node];
+                    int next;
+                    while ((next = child(fail, keys[node][i])) < 0 && fail != 0) fail = fails[fail];
+                    fails[child] = next >= 0 ? next : 0;
+                    int[] inherited = outputs[fails[child]];
+                    for (int id : inherited) outputs[child] = insert(outputs[child], outputs[child].length, id);
+                    queue[tail++] = child;
+                }
+            }
+        }
+
+        private int child(int node, char c) {
+            int index = Arrays.binarySearch(keys[node], c);
+            return index >= 0 ? children[node][index] : -1;
+        }
+
+        /**
+         * 从资源名称的开头（或结尾）沿着字典树往下走，每经过一个有输出的节点就用对应的表达式验证整个资源名称
+         */
+        boolean prefixes(String name, boolean reverse, AntMatcher[] matchers) {
+            int length = name.length();
+            int node = 0;
+            for (int i = 0; i < length; i++) {
+                node = child(node, name.charAt(reverse ? length - 1 - i : i));
+                if (node < 0) {
+                    return false;
+                }
+                for (int id : outputs[node]) {
+                    if (matchers[id].matches(name)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 用Aho-Corasick自动机扫描一遍资源名称，每遇到一个字面量就用对应的表达式验证整个资源名称
+         */
+        boolean contains(String name, AntMatcher[] matchers) {
+            if (size == 1) {
+                return false;
+            }
+            int node = 0;
+            for (int i = 0, length = name.length(); i < length; i++) {
+                char c = name.charAt(i);
+                int next;
+                while ((next = child(node, c)) < 0 && node != 0) node = fails[node];
+                node = next >= 0 ? next : 0;
+                for (int id : outputs[node]) {
+                    if (matchers[id].matches(name)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static char[] insert(char[] array, int at, char value) {
+            char[] result = new char[array.length + 1];
+            System.arraycopy(array, 0, result, 0, at);
+            result[at] = value;
+            System.arraycopy(array, at, result, at + 1, array.length - at);
+            return result;
+        }
+
+        private static int[] insert(int[] array, int at, int value) {
+            int[] result = new int[array.length + 1];
+            System.arraycopy(array, 0, result, 0, at);
+            result[at] = value;
+            System.arraycopy(array, at, result, at + 1, array.length - at);
+            return result;
+        }
+    }
+
+}
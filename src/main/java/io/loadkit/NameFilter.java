@@ -0,0 +1,21 @@
+package io.loadkit;
+
+/**
+ * 名称过滤器，即仅根据资源名称就能做出判断的过滤器，资源加载器遇到该类过滤器时会先按名称过滤，
+ * 只有满足过滤条件的资源才会去构建URL地址，避免为大量被过滤掉的资源构建URL对象的开销。
+ * 实现该接口的过滤器其{@link Filter#filtrate(String, java.net.URL)}方法的结果必须和{@link NameFilter#filtrate(String)}保持一致。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 10:20
+ */
+public interface NameFilter extends Filter {
+
+    /**
+     * 根据资源名称过滤资源
+     *
+     * @param name 资源名称，即相对路径
+     * @return true: 加载  false: 不加载
+     */
+    boolean filtrate(String name);
+
+}
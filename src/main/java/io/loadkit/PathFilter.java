@@ -0,0 +1,23 @@
+package io.loadkit;
+
+/**
+ * 路径过滤器，除了过滤资源之外还能判断一个目录下是否有可能存在满足过滤条件的资源，
+ * 资源加载器在递归加载时遇到{@link PathFilter#descend(String)}返回false的目录会跳过整个子目录，
+ * 文件资源加载器不会打开该目录，JAR包资源加载器则跳过索引中该目录对应的条目区间。
+ * 例如排除"**&#47;test/**"的过滤器可以对所有名为"test"的目录返回false，从而避免遍历其下的所有文件。
+ * 实现该接口的过滤器必须保证：对于返回false的目录，该目录下（包括子目录）的任何资源都不满足过滤条件。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 13:10
+ */
+public interface PathFilter extends Filter {
+
+    /**
+     * 判断是否需要进入指定目录继续加载
+     *
+     * @param directory 目录名称，即相对路径，以"/"结尾
+     * @return true: 进入该目录  false: 跳过整个目录
+     */
+    boolean descend(String directory);
+
+}
@@ -1,18 +1,68 @@
 package io.loadkit;
 
 import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
- * 模式匹配资源加载器
+ * 模式匹配资源加载器，模式表达式推导出的资源根路径、是否递归加载以及过滤器可以作为加载计划缓存起来，
+ * 同一个模式表达式再次加载时不需要重新解析和编译。缓存基于{@link ConcurrentHashMap}，命中时不需要加锁，
+ * 容量有限，超出时按照时钟算法近似地淘汰最近没有使用的加载计划，所以缓存的条目数量可能短暂地超出容量。
+ * 缓存缺省是关闭的，子类确认其推导出的过滤器是不可变的、可以在多个线程之间共享之后，再通过构造器指定缓存容量开启，
+ * 例如{@link AntLoader}和{@link RegexLoader}使用{@link PatternLoader#DEFAULT_CACHE_SIZE}。
  *
  * @author Payne 646742615@qq.com
  * 2018/12/2 11:11
  */
 public abstract class PatternLoader extends DelegateLoader implements Loader {
+    /**
+     * 推荐的加载计划缓存容量
+     */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    private final Map<String, Plan> plans;
+    private final int cacheSize;
+    /**
+     * 同一时间只有一个线程执行淘汰，其他线程直接跳过
+     */
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
 
+    /**
+     * 创建不缓存加载计划的模式匹配资源加载器
+     *
+     * @param delegate 委派的资源加载器
+     */
     protected PatternLoader(Loader delegate) {
+        this(delegate, 0);
+    }
+
+    /**
+     * @param delegate  委派的资源加载器
+     * @param cacheSize 加载计划缓存的容量，0代表不缓存
+     */
+    protected PatternLoader(Loader delegate, int cacheSize) {
         super(delegate);
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("cacheSize must not be negative");
+        }
+        this.plans = cacheSize == 0 ? null : new ConcurrentHashMap<String, Plan>();
+        this.cacheSize = cacheSize;
     }
 
     /**
@@ -28,17 +78,186 @@ public abstract class PatternLoader extends DelegateLoader implements Loader {
      * @throws IOException I/O 异常
      */
     public Enumeration<Resource> load(String pattern, boolean recursively, Filter filter) throws IOException {
-        Filter matcher = filter(pattern);
-        AllFilter allFilter = new AllFilter();
-        if (matcher != null) allFilter.add(matcher);
-        if (filter != null) allFilter.add(filter);
+        Plan plan = plan(pattern);
         return delegate.load(
-                path(pattern),
-                recursively(pattern),
-                allFilter
+                plan.path,
+                plan.recursively,
+                mix(plan, filter)
+        );
+    }
+
+    /**
+     * 以{@link Stream}的方式加载匹配模式表达式的所有资源，参数的处理方式与{@link PatternLoader#load(String, boolean, Filter)}一致，
+     * 实际的资源流由委派的资源加载器提供。
+     *
+     * @param pattern     模式表达式
+     * @param recursively 递归加载
+     * @param filter      过滤器
+     * @return 所有匹配模式表达式的资源流
+     * @throws IOException I/O 异常
+     */
+    @Override
+    public Stream<Resource> stream(String pattern, boolean recursively, Filter filter) throws IOException {
+        Plan plan = plan(pattern);
+        return delegate.stream(
+                plan.path,
+                plan.recursively,
+                mix(plan, filter)
         );
     }
 
+    /**
+     * 批量加载匹配多个模式表达式的资源，先根据每个模式表达式推导出根路径、是否递归加载以及过滤器，
+     * 再将根路径相互嵌套的模式表达式合并成一组，每一组只从最上层的根路径加载一次，过滤器为组内所有模式表达式的{@link AnyFilter}，
+     * 加载到的资源再逐一交给组内每个模式表达式判断归属，所以每个模式表达式对应的资源与单独调用{@link Loader#load(String)}一致。
+     * 组内的模式表达式限定在各自的根路径下，而且都是{@link PathFilter}，所以合并之后的加载依然会跳过无关的子目录。
+     * 注意只有根路径都不为空而且相互嵌套的模式表达式才会合并，根路径互不相关或者为空的模式表达式依然各自加载一次，
+     * 因为类加载器并不能可靠地列出空路径下的资源：{@link ClassLoader#getResources(String)}对空路径通常只返回第一个目录，
+     * 也找不到没有目录条目的JAR包，把其他模式表达式并入空路径的组会让它们丢失资源。
+     *
+     * @param patterns 模式表达式
+     * @return 每个模式表达式对应的资源列表
+     * @throws IOException I/O 异常
+     */
+    @Override
+    public Map<String, List<Resource>> loadAll(Collection<String> patterns) throws IOException {
+        Map<String, List<Resource>> result = new LinkedHashMap<String, List<Resource>>();
+        List<Scope> scopes = new ArrayList<Scope>();
+        for (String pattern : patterns) {
+            if (result.containsKey(pattern)) {
+                continue;
+            }
+            result.put(pattern, new ArrayList<Resource>());
+            Plan plan = plan(pattern);
+            if (plan.filter == Filters.NEVER) {
+                continue;
+            }
+            NameFilter nameFilter = Filters.byName(plan.filter);
+            Scope scope = nameFilter != null
+                    ? new NameScope(pattern, plan.path, plan.recursively, plan.filter, nameFilter)
+                    : new Scope(pattern, plan.path, plan.recursively, plan.filter);
+            scopes.add(scope);
+        }
+        // 根路径较短的作为组的根路径，根路径嵌套在其下的模式表达式并入该组
+        Collections.sort(scopes, new Comparator<Scope>() {
+            public int compare(Scope a, Scope b) {
+                return a.directory.length() - b.directory.length();
+            }
+        });
+        List<List<Scope>> groups = new ArrayList<List<Scope>>();
+        for (Scope scope : scopes) {
+            List<Scope> group = null;
+            for (List<Scope> candidate : groups) {
+                if (candidate.get(0).covers(scope.directory)) {
+                    group = candidate;
+                    break;
+                }
+            }
+            if (group == null) {
+                group = new ArrayList<Scope>();
+                groups.add(group);
+            }
+            group.add(scope);
+        }
+        for (List<Scope> group : groups) {
+            Scope root = group.get(0);
+            boolean recursively = root.recursively;
+            for (Scope scope : group) recursively |= scope.recursively || !scope.directory.equals(root.directory);
+            Filter filter = group.size() == 1 ? root : new AnyFilter(group);
+            Enumeration<Resource> resources = delegate.load(root.directory, recursively, filter);
+            while (resources.hasMoreElements()) {
+                Resource resource = resources.nextElement();
+                for (Scope scope : group) {
+                    if (group.size() == 1 || scope.accept(resource)) result.get(scope.pattern).add(resource);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取模式表达式的加载计划，缓存中没有时推导并放入缓存，并发情况下同一个模式表达式有可能被推导多次，但结果是一样的。
+     *
+     * @param pattern 模式表达式
+     * @return 加载计划
+     */
+    private Plan plan(String pattern) {
+        Plan plan = plans != null ? plans.get(pattern) : null;
+        if (plan != null) {
+            // 已经标记过的不再写入，避免热点加载计划在多个处理器之间来回同步
+            if (!plan.used) plan.used = true;
+            hits.incrementAndGet();
+            return plan;
+        }
+        misses.incrementAndGet();
+        plan = new Plan(path(pattern), recursively(pattern), Filters.normalize(filter(pattern)));
+        if (plans != null) {
+            plans.put(pattern, plan);
+            if (plans.size() > cacheSize) evict();
+        }
+        return plan;
+    }
+
+    /**
+     * 按照时钟算法淘汰加载计划直到不超出缓存容量：依次扫描缓存，命中过的加载计划清除标记后保留，
+     * 没有标记的加载计划则被淘汰，所以每个加载计划在被淘汰之前都有一次因为命中而保留的机会。
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (plans.size() > cacheSize) {
+                Iterator<Plan> iterator = plans.values().iterator();
+                while (iterator.hasNext() && plans.size() > cacheSize) {
+                    Plan plan = iterator.next();
+                    if (plan.used) plan.used = false;
+                    else iterator.remove();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * 将加载计划中的过滤器与filter参数混合并化简，两者都为空时化简为{@link Filters#ALWAYS}，
+     * 委派的资源加载器据此跳过过滤器调用，或者在化简为{@link Filters#NEVER}时直接返回空的结果。
+     */
+    private Filter mix(Plan plan, Filter filter) {
+        if (filter == null) {
+            return plan.filter;
+        }
+        return Filters.normalize(new AllFilter(plan.filter, filter));
+    }
+
+    /**
+     * 获取加载计划缓存的命中次数
+     *
+     * @return 命中次数
+     */
+    public long getCacheHits() {
+        return hits.get();
+    }
+
+    /**
+     * 获取加载计划缓存的未命中次数，不缓存时每一次加载都算作未命中
+     *
+     * @return 未命中次数
+     */
+    public long getCacheMisses() {
+        return misses.get();
+    }
+
+    /**
+     * 清空加载计划缓存
+     */
+    public void clearCache() {
+        if (plans != null) {
+            plans.clear();
+        }
+    }
+
     /**
      * 根据资源表达式推导出资源根路径
      *
@@ -62,4 +281,144 @@ public abstract class PatternLoader extends DelegateLoader implements Loader {
      * @return 出资源过滤器
      */
     protected abstract Filter filter(String pattern);
+
+    /**
+     * 加载计划，即模式表达式推导出的资源根路径、是否递归加载以及化简之后的过滤器
+     */
+    private static class Plan {
+        private final String path;
+        private final boolean recursively;
+        private final Filter filter;
+        /**
+         * 上一次淘汰扫描之后是否命中过
+         */
+        private volatile boolean used;
+
+        Plan(String path, boolean recursively, Filter filter) {
+            this.path = path;
+            this.recursively = recursively;
+            this.filter = filter;
+        }
+    }
+
+    /**
+     * 将模式表达式的过滤器限定在其根路径以及递归范围之内的过滤器，批量加载时用于判断资源属于哪个模式表达式，
+     * 与单独加载时委派的资源加载器所限定的范围保持一致。
+     */
+    private static class Scope implements PathFilter, ByteNameFilter, Filter {
+        private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+        private final String pattern;
+        private final String directory;
+        private final byte[] prefix;
+        private final boolean recursively;
+        private final Filter filter;
+        private final ByteNameFilter byteFilter;
+
+        Scope(String pattern, String path, boolean recursively, Filter filter) {
+            while (path.startsWith("/")) path = path.substring(1);
+            while (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+            this.pattern = pattern;
+            this.directory = path;
+            this.prefix = path.getBytes(UTF_8);
+            this.recursively = recursively;
+            this.filter = filter;
+            this.byteFilter = Filters.byBytes(filter);
+        }
+
+        /**
+         * 判断指定的根路径是否位于该范围的根路径之下（包括相同），空的根路径不与任何根路径合并
+         */
+        boolean covers(String path) {
+            if (directory.length() == 0 || path.length() == 0) {
+                return false;
+            }
+            return path.equals(directory) || path.startsWith(directory + "/");
+        }
+
+        /**
+         * 判断资源名称是否位于该范围之内
+         */
+        boolean contains(String name) {
+            if (directory.length() == 0) {
+                return recursively || name.indexOf('/') < 0;
+            }
+            if (name.equals(directory)) {
+                return true;
+            }
+            int length = directory.length();
+            return name.length() > length
+                    && name.charAt(length) == '/'
+                    && name.startsWith(directory)
+                    && (recursively || name.indexOf('/', length + 1) < 0);
+        }
+
+        /**
+         * 在原始字节上判断资源名称是否位于该范围之内，与{@link Scope#contains(String)}一致，再交给过滤器的字节名称过滤视图
+         */
+        public boolean accept(ByteBuffer buffer, int offset, int length) {
+            int from = offset;
+            int end = offset + length;
+            if (prefix.length > 0) {
+                if (length < prefix.length) {
+                    return false;
+                }
+                for (int i = 0; i < prefix.length; i++) {
+                    if (buffer.get(offset + i) != prefix[i]) {
+                        return false;
+                    }
+                }
+                if (length > prefix.length && buffer.get(offset + prefix.length) != '/') {
+                    return false;
+                }
+                from = Math.min(offset + prefix.length + 1, end);
+            }
+            for (int i = from; !recursively && i < end; i++) {
+                if (buffer.get(i) == '/') {
+                    return false;
+                }
+            }
+            return byteFilter == null || byteFilter.accept(buffer, offset, length);
+        }
+
+        boolean accept(Resource resource) {
+            return contains(resource.getName()) && filter.filtrate(resource.getName(), resource.getUrl());
+        }
+
+        public boolean filtrate(String name, URL url) {
+            return contains(name) && filter.filtrate(name, url);
+        }
+
+        public boolean descend(String directory) {
+            if (this.directory.length() == 0) {
+                return recursively && Filters.descend(filter, directory);
+            }
+            String prefix = this.directory + "/";
+            if (prefix.startsWith(directory)) {
+                return true;
+            }
+            return recursively && directory.startsWith(prefix) && Filters.descend(filter, directory);
+        }
+    }
+
+    /**
+     * 过滤器可以仅根据名称做出判断的范围
+     */
+    private static class NameScope extends Scope implements NameFilter, PathFilter, ByteNameFilter, Filter {
+        private final NameFilter nameFilter;
+
+        NameScope(String pattern, String path, boolean recursively, Filter filter, NameFilter nameFilter) {
+            super(pattern, path, recursively, filter);
+            this.nameFilter = nameFilter;
+        }
+
+        @Override
+        boolean accept(Resource resource) {
+            return filtrate(resource.getName());
+        }
+
+        public boolean filtrate(String name) {
+            return contains(name) && nameFilter.filtrate(name);
+        }
+    }
 }
@@ -1,7 +1,15 @@
 package io.loadkit;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * 包名表达式资源加载器
@@ -27,4 +35,33 @@ public class PkgLoader extends DelegateLoader implements Loader {
         String path = pkg.replace('.', '/');
         return delegate.load(path, recursively, filter);
     }
+
+    @Override
+    public Stream<Resource> stream(String pkg, boolean recursively, Filter filter) throws IOException {
+        String path = pkg.replace('.', '/');
+        return delegate.stream(path, recursively, filter);
+    }
+
+    /**
+     * 批量加载多个包名表达式的资源，包名转换成路径之后交给委派的资源加载器批量加载，再按照包名表达式重新分组。
+     *
+     * @param pkgs 包名表达式
+     * @return 每个包名表达式对应的资源列表
+     * @throws IOException I/O 异常
+     */
+    @Override
+    public Map<String, List<Resource>> loadAll(Collection<String> pkgs) throws IOException {
+        Set<String> paths = new LinkedHashSet<String>();
+        for (String pkg : pkgs) {
+            paths.add(pkg.replace('.', '/'));
+        }
+        Map<String, List<Resource>> resources = delegate.loadAll(paths);
+        Map<String, List<Resource>> result = new LinkedHashMap<String, List<Resource>>();
+        for (String pkg : pkgs) {
+            if (!result.containsKey(pkg)) {
+                result.put(pkg, new ArrayList<Resource>(resources.get(pkg.replace('.', '/'))));
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,218 @@
+package io.loadkit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 预取资源加载器，这是一个委派加载器，在后台线程中遍历委派的资源加载器返回的资源枚举器，
+ * 并通过一个有界队列把资源交给调用者，让资源的扫描与调用者对资源的处理（例如解析字节码）同时进行。
+ * 队列的容量即预取深度，后台线程最多领先调用者预取深度个资源，所以内存占用是有上限的。
+ * 后台线程中抛出的异常会在调用者取到该位置时重新抛出。调用者提前结束遍历时可以关闭返回的{@link CloseableEnumeration}，
+ * 不关闭的话后台线程也会在调用者不再引用资源枚举器之后自行退出，退出时委派的资源枚举器如果是{@link Closeable}则会被关闭。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 11:20
+ */
+public class PrefetchingLoader extends DelegateLoader implements Loader {
+    /**
+     * 缺省的预取深度
+     */
+    public static final int DEFAULT_DEPTH = 1024;
+
+    private static final Object END = new Object();
+    /**
+     * 缺省的执行器，所有缺省配置的预取资源加载器共享，空闲的守护线程会被复用，不会阻止JVM退出。
+     * 由于预取任务会一直占用线程直到调用者取完或者放弃，线程数量不设上限，否则排队的任务会让调用者一直等待。
+     */
+    private static final ExecutorService SHARED = Executors.newCachedThreadPool(new DaemonThreadFactory());
+
+    private final int depth;
+    private final Executor executor;
+
+    public PrefetchingLoader(Loader delegate) {
+        this(delegate, DEFAULT_DEPTH);
+    }
+
+    public PrefetchingLoader(Loader delegate, int depth) {
+        this(delegate, depth, SHARED);
+    }
+
+    /**
+     * 创建预取资源加载器
+     *
+     * @param delegate 委派的资源加载器
+     * @param depth    预取深度，即后台线程最多领先调用者的资源数量
+     * @param executor 执行预取任务的执行器，每一次加载提交一个任务，任务会一直占用线程直到资源遍历完毕或调用者放弃遍历
+     */
+    public PrefetchingLoader(Loader delegate, int depth, Executor executor) {
+        super(delegate);
+        if (depth <= 0) {
+            throw new IllegalArgumentException("depth must be positive");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor must not be null");
+        }
+        this.depth = depth;
+        this.executor = executor;
+    }
+
+    /**
+     * 加载资源并在后台线程中预取，返回的资源枚举器是{@link CloseableEnumeration}，提前结束遍历时可以关闭以便立即释放后台线程以及委派的资源枚举器。
+     *
+     * @param path        资源路径
+     * @param recursively 递归加载
+     * @param filter      过滤器
+     * @return 资源枚举器
+     * @throws IOException I/O 异常
+     */
+    public Enumeration<Resource> load(String path, boolean recursively, Filter filter) throws IOException {
+        filter = Filters.normalize(filter);
+        if (filter == Filters.NEVER) {
+            return Collections.enumeration(Collections.<Resource>emptySet());
+        }
+        Enumeration<Resource> resources = delegate.load(path, recursively, filter);
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(depth);
+        Enumerator enumerator = new Enumerator(queue);
+        executor.execute(new Prefetcher(resources, queue, enumerator));
+        return enumerator;
+    }
+
+    /**
+     * 后台线程中抛出的异常
+     */
+    private static class Failure {
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    private static class Enumerator extends ResourceEnumerator implements CloseableEnumeration<Resource> {
+        private final BlockingQueue<Object> queue;
+        private volatile boolean closed;
+        private boolean finished;
+
+        Enumerator(BlockingQueue<Object> queue) {
+            this.queue = queue;
+        }
+
+        public boolean hasMoreElements() {
+            if (next != null) {
+                return true;
+            }
+            if (finished || closed) {
+                return false;
+            }
+            Object element;
+            try {
+                element = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            if (element == END) {
+                finished = true;
+                return false;
+            }
+            if (element instanceof Failure) {
+                finished = true;
+                Throwable cause = ((Failure) element).cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IllegalStateException(cause);
+            }
+            next = (Resource) element;
+            return true;
+        }
+
+        /**
+         * 通知后台线程放弃预取并清空队列，后台线程随即关闭委派的资源枚举器并退出
+         */
+        public void close() {
+            closed = true;
+            next = null;
+            queue.clear();
+        }
+    }
+
+    /**
+     * 预取任务，队列已满时定时重试，如果期间调用者关闭了或者已经不再引用资源枚举器则放弃预取，
+     * 不论以何种方式结束，委派的资源枚举器如果是{@link Closeable}都会被关闭。
+     */
+    private static class Prefetcher implements Runnable {
+        private final Enumeration<Resource> resources;
+        private final BlockingQueue<Object> queue;
+        private final WeakReference<Enumerator> consumer;
+
+        Prefetcher(Enumeration<Resource> resources, BlockingQueue<Object> queue, Enumerator consumer) {
+            this.resources = resources;
+            this.queue = queue;
+            this.consumer = new WeakReference<Enumerator>(consumer);
+        }
+
+        public void run() {
+            try {
+                while (resources.hasMoreElements()) {
+                    if (!put(resources.nextElement())) {
+                        return;
+                    }
+                }
+                put(END);
+            } catch (Throwable e) {
+                try {
+                    put(new Failure(e));
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+            } finally {
+                release();
+            }
+        }
+
+        private boolean put(Object element) throws InterruptedException {
+            do {
+                Enumerator enumerator = consumer.get();
+                if (enumerator == null || enumerator.closed) {
+                    return false;
+                }
+            } while (!queue.offer(element, 100, TimeUnit.MILLISECONDS));
+            return true;
+        }
+
+        private void release() {
+            if (resources instanceof Closeable) {
+                try {
+                    ((Closeable) resources).close();
+                } catch (IOException e) {
+                    // 关闭委派的资源枚举器失败时忽略
+                }
+            }
+        }
+    }
+
+    /**
+     * 缺省执行器的线程工厂，创建带编号的守护线程
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(Runnable command) {
+            Thread thread = new Thread(command, "loadkit-prefetch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -9,7 +9,7 @@ import java.util.regex.Pattern;
  * @author Payne 646742615@qq.com
  * 2018/12/2 11:41
  */
-public class RegexFilter implements Filter {
+public class RegexFilter implements NameFilter, Filter {
     private final Pattern pattern;
 
     public RegexFilter(String regex) {
@@ -23,7 +23,43 @@ public class RegexFilter implements Filter {
         this.pattern = pattern;
     }
 
+    /**
+     * 供不直接使用正则表达式匹配的子类使用，子类需要重写{@link RegexFilter#getPattern()}以及过滤和判等的方法
+     */
+    protected RegexFilter() {
+        this.pattern = null;
+    }
+
+    /**
+     * 获取正则表达式
+     *
+     * @return 正则表达式
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
     public boolean filtrate(String name, URL url) {
+        return filtrate(name);
+    }
+
+    public boolean filtrate(String name) {
         return pattern.matcher(name).matches();
     }
+
+    /**
+     * 正则表达式以及匹配标志都相同的过滤器是相等的，缓存资源加载器据此识别相同的加载请求
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Pattern that = ((RegexFilter) o).pattern;
+        return pattern.flags() == that.flags() && pattern.pattern().equals(that.pattern());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * pattern.pattern().hashCode() + pattern.flags();
+    }
 }
@@ -7,6 +7,8 @@ package io.loadkit;
  * 2018/12/2 12:31
  */
 public class RegexLoader extends PatternLoader implements Loader {
+    private static final String METACHARACTERS = "^$.|?*+()[]{}";
+    private static final String QUANTIFIERS = "?*+{";
 
     public RegexLoader() {
         this(new StdLoader());
@@ -17,18 +19,301 @@ public class RegexLoader extends PatternLoader implements Loader {
     }
 
     public RegexLoader(Loader delegate) {
-        super(delegate);
+        super(delegate, DEFAULT_CACHE_SIZE);
     }
 
-    protected String path(String pattern) {
-        return "";
+    /**
+     * @param delegate  委派的资源加载器
+     * @param cacheSize 加载计划缓存的容量，0代表不缓存
+     */
+    public RegexLoader(Loader delegate, int cacheSize) {
+        super(delegate, cacheSize);
     }
 
-    protected boolean recursively(String pattern) {
-        return true;
+    /**
+     * 根据正则表达式开头的字面量部分推导出资源根路径，即字面量部分中最后一个"/"及其之前的部分，
+     * 例如"io/loadkit/\\w+Loader\\.class"的资源根路径为"io/loadkit/"，
+     * 当正则表达式在顶层包含"|"时无法确定公共的字面量前缀，此时资源根路径为空。
+     *
+     * @param regex 正则表达式
+     * @return 资源根路径
+     */
+    protected String path(String regex) {
+        StringBuilder path = new StringBuilder();
+        root(regex, path);
+        return path.toString();
     }
 
-    protected Filter filter(String pattern) {
-        return new RegexFilter(pattern);
+    /**
+     * 根据正则表达式在资源根路径之后的部分是否有可能匹配"/"推导出是否需要递归加载，
+     * 例如"io/loadkit/[^/]*\\.class"只会匹配"io/loadkit/"目录下的资源所以不需要递归加载，
+     * 而"."、"\\W"、"\\p{Punct}"等可能匹配"/"的部分则需要递归加载。
+     *
+     * @param regex 正则表达式
+     * @return 是否需要递归加载
+     */
+    protected boolean recursively(String regex) {
+        return slashable(regex, root(regex, new StringBuilder()));
+    }
+
+    protected Filter filter(String regex) {
+        return new RegexFilter(regex);
+    }
+
+    /**
+     * 解析正则表达式开头的字面量部分，将其中最后一个"/"及其之前的字面量写入path，
+     * 字面量包括普通字符、转义的非字母数字字符以及"\Q...\E"引用的字符，
+     * 遇到其他元字符或转义序列时结束，紧跟着量词的最后一个字符由于不确定也不算在内。
+     *
+     * @param regex 正则表达式
+     * @param path  资源根路径
+     * @return 资源根路径之后的部分在正则表达式中的起始位置
+     */
+    private static int root(String regex, StringBuilder path) {
+        if (alternative(regex)) {
+            return 0;
+        }
+        StringBuilder literal = new StringBuilder();
+        int length = regex.length();
+        int root = 0;
+        int i = 0;
+        while (i < length) {
+            int start = literal.length();
+            int next;
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= length) {
+                    break;
+                }
+                char e = regex.charAt(i + 1);
+                if (e == 'Q') {
+                    int end = regex.indexOf("\\E", i + 2);
+                    literal.append(regex, i + 2, end < 0 ? length : end);
+                    next = end < 0 ? length : end + 2;
+                } else if (Character.isLetterOrDigit(e)) {
+                    break;
+                } else {
+                    literal.append(e);
+                    next = i + 2;
+                }
+            } else if (METACHARACTERS.indexOf(c) >= 0) {
+                break;
+            } else {
+                int codePoint = regex.codePointAt(i);
+                literal.appendCodePoint(codePoint);
+                next = i + Character.charCount(codePoint);
+            }
+            boolean quantified = next < length && QUANTIFIERS.indexOf(regex.charAt(next)) >= 0;
+            if (quantified && literal.length() > 0) {
+                int last = literal.codePointBefore(literal.length());
+                literal.setLength(literal.length() - Character.charCount(last));
+            }
+            int slash = literal.lastIndexOf("/");
+            if (slash >= start) {
+                path.setLength(0);
+                path.append(literal, 0, slash + 1);
+                root = next;
+            }
+            if (quantified) {
+                break;
+            }
+            i = next;
+        }
+        return root;
+    }
+
+    /**
+     * 判断正则表达式是否在顶层包含"|"
+     *
+     * @param regex 正则表达式
+     * @return 是否在顶层包含"|"
+     */
+    private static boolean alternative(String regex) {
+        int length = regex.length();
+        int depth = 0;
+        for (int i = 0; i < length; i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = escape(regex, i);
+            } else if (c == '[') {
+                i = bracket(regex, i);
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断正则表达式从指定位置开始的部分是否有可能匹配"/"，无法确定时按可能匹配处理
+     *
+     * @param regex 正则表达式
+     * @param from  起始位置
+     * @return 是否有可能匹配"/"
+     */
+    private static boolean slashable(String regex, int from) {
+        int length = regex.length();
+        for (int i = from; i < length; i++) {
+            char c = regex.charAt(i);
+            if (c == '.' || c == '/') {
+                return true;
+            }
+            if (c == '[') {
+                int end = bracket(regex, i);
+                if (slashable(regex, i, end)) {
+                    return true;
+                }
+                i = end;
+            } else if (c == '\\') {
+                int end = escape(regex, i);
+                if (end < length && regex.charAt(end) == 'k') {
+                    // 命名分组的反向引用只能匹配该分组已经匹配的内容
+                    int close = regex.indexOf('>', i);
+                    end = close < 0 ? length : close;
+                } else if (escaped(regex, i) != '\0') {
+                    return true;
+                }
+                i = end;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断字符类"[...]"是否有可能匹配"/"，嵌套的字符类以及交集运算无法简单判断，按可能匹配处理
+     *
+     * @param regex 正则表达式
+     * @param start 字符类的起始位置，即"["的位置
+     * @param end   字符类的结束位置，即"]"的位置
+     * @return 是否有可能匹配"/"
+     */
+    private static boolean slashable(String regex, int start, int end) {
+        int i = start + 1;
+        boolean negated = i < end && regex.charAt(i) == '^';
+        if (negated) i++;
+        // 明确包含"/"以及可能包含"/"
+        boolean slash = false;
+        boolean unknown = false;
+        // 上一个字符，用于判断范围，-1 代表不能作为范围的起点
+        int previous = -1;
+        for (; i < end; i++) {
+            char c = regex.charAt(i);
+            if (c == '[' || c == '&' && i + 1 < end && regex.charAt(i + 1) == '&') {
+                return true;
+            }
+            if (c == '-' && previous >= 0 && i + 1 < end) {
+                int high;
+                if (regex.charAt(i + 1) == '\\') {
+                    high = literal(regex, i + 1);
+                    i = escape(regex, i + 1);
+                } else {
+                    high = regex.charAt(++i);
+                }
+                if (high < 0) unknown = true;
+                else if (previous <= '/' && '/' <= high) slash = true;
+                previous = -1;
+            } else if (c == '\\') {
+                int to = escape(regex, i);
+                char e = escaped(regex, i);
+                if (e == '/') slash = true;
+                else if (e != '\0') unknown = true;
+                previous = literal(regex, i);
+                i = to;
+            } else {
+                if (c == '/') slash = true;
+                previous = c;
+            }
+        }
+        return negated ? !slash : slash || unknown;
+    }
+
+    /**
+     * 获取转义序列所代表的普通字符
+     *
+     * @param regex 正则表达式
+     * @param start 转义序列的起始位置，即"\"的位置
+     * @return 转义的非字母数字字符，其他转义序列返回-1
+     */
+    private static int literal(String regex, int start) {
+        if (start + 1 >= regex.length()) {
+            return -1;
+        }
+        char e = regex.charAt(start + 1);
+        return Character.isLetterOrDigit(e) ? -1 : e;
+    }
+
+    /**
+     * 判断转义序列是否有可能匹配"/"
+     *
+     * @param regex 正则表达式
+     * @param start 转义序列的起始位置，即"\"的位置
+     * @return 不可能匹配"/"时返回'\0'，转义的字符本身是"/"时返回'/'，其他可能匹配"/"的情况返回该转义字符
+     */
+    private static char escaped(String regex, int start) {
+        if (start + 1 >= regex.length()) {
+            return '\0';
+        }
+        char e = regex.charAt(start + 1);
+        if (e == 'Q') {
+            int close = regex.indexOf("\\E", start + 2);
+            String quoted = close < 0 ? regex.substring(start + 2) : regex.substring(start + 2, close);
+            return quoted.indexOf('/') >= 0 ? '/' : '\0';
+        }
+        if (e == '/') {
+            return '/';
+        }
+        if (!Character.isLetterOrDigit(e)) {
+            return '\0';
+        }
+        // 不会匹配"/"的预定义字符类、边界、控制字符以及反向引用
+        return "dwsbBAzZGtnrfaeRhv123456789".indexOf(e) >= 0 ? '\0' : e;
+    }
+
+    /**
+     * 跳过转义序列
+     *
+     * @param regex 正则表达式
+     * @param start 转义序列的起始位置，即"\"的位置
+     * @return 转义序列的结束位置（包含）
+     */
+    private static int escape(String regex, int start) {
+        int length = regex.length();
+        if (start + 1 < length && regex.charAt(start + 1) == 'Q') {
+            int end = regex.indexOf("\\E", start + 2);
+            return end < 0 ? length - 1 : end + 1;
+        }
+        return Math.min(start + 1, length - 1);
+    }
+
+    /**
+     * 跳过字符类
+     *
+     * @param regex 正则表达式
+     * @param start 字符类的起始位置，即"["的位置
+     * @return 字符类的结束位置，即与之匹配的"]"的位置，未闭合时返回最后一个字符的位置
+     */
+    private static int bracket(String regex, int start) {
+        int length = regex.length();
+        int depth = 0;
+        for (int i = start; i < length; i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = escape(regex, i);
+            } else if (c == '[') {
+                depth++;
+                // 紧跟在"["或"[^"之后的"]"是普通字符
+                if (i + 1 < length && regex.charAt(i + 1) == '^') i++;
+                if (i + 1 < length && regex.charAt(i + 1) == ']') i++;
+            } else if (c == ']') {
+                if (--depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return length - 1;
     }
 }
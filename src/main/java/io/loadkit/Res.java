@@ -13,6 +13,7 @@ import java.net.URL;
 public class Res implements Resource {
     private final String name;
     private final URL url;
+    private volatile String key;
 
     public Res(String name, URL url) {
         if (name == null) {
@@ -25,6 +26,19 @@ public class Res implements Resource {
         this.url = url;
     }
 
+    /**
+     * 供惰性构建URL地址的子类使用，子类需要重写{@link Res#getUrl()}方法。
+     *
+     * @param name 资源名称
+     */
+    protected Res(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("name must not be null");
+        }
+        this.name = name;
+        this.url = null;
+    }
+
     public String getName() {
         return name;
     }
@@ -34,26 +48,49 @@ public class Res implements Resource {
     }
 
     public InputStream getInputStream() throws IOException {
-        return url.openStream();
+        return getUrl().openStream();
+    }
+
+    /**
+     * 资源的唯一标识，即资源URL地址的外部形式，只计算一次而且计算过程不涉及任何I/O，
+     * 避免{@link URL#equals(Object)}和{@link URL#hashCode()}解析主机名带来的阻塞。
+     *
+     * @return 资源的唯一标识
+     */
+    protected String key() {
+        String key = this.key;
+        if (key == null) {
+            this.key = key = toExternalForm();
+        }
+        return key;
+    }
+
+    /**
+     * 计算资源URL地址的外部形式，子类可以重写该方法以避免构建URL对象。
+     *
+     * @return 资源URL地址的外部形式
+     */
+    protected String toExternalForm() {
+        return getUrl().toExternalForm();
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Res)) return false;
 
         Res that = (Res) o;
 
-        return url.equals(that.url);
+        return key().equals(that.key());
     }
 
     @Override
     public int hashCode() {
-        return url.hashCode();
+        return key().hashCode();
     }
 
     @Override
     public String toString() {
-        return url.toString();
+        return key();
     }
 }
@@ -5,11 +5,28 @@ import java.io.IOException;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 标准的资源加载器
@@ -18,7 +35,22 @@ import java.util.jar.JarFile;
  * 2018/12/1 23:10
  */
 public class StdLoader extends ResourceLoader implements Loader {
+    /**
+     * 并发扫描时缺省的最大同时打开的根路径数量
+     */
+    public static final int DEFAULT_CONCURRENCY = 16;
+
     private final ClassLoader classLoader;
+    private final Executor executor;
+    /**
+     * 限制同时扫描的根路径数量的信号量，由该加载器的所有并发加载共享，所以多个线程同时加载时打开的根路径总数依然有上限
+     */
+    private final Semaphore semaphore;
+    private final boolean ordered;
+    /**
+     * 并行过滤JAR包条目所使用的线程池，为{@code null}时依次过滤
+     */
+    private final ForkJoinPool pool;
 
     public StdLoader() {
         this(Thread.currentThread().getContextClassLoader() != null ? Thread.currentThread().getContextClassLoader() : ClassLoader.getSystemClassLoader());
@@ -29,87 +61,409 @@ public class StdLoader extends ResourceLoader implements Loader {
             throw new IllegalArgumentException("classLoader must not be null");
         }
         this.classLoader = classLoader;
+        this.executor = null;
+        this.semaphore = null;
+        this.ordered = true;
+        this.pool = null;
+    }
+
+    public StdLoader(ClassLoader classLoader, Executor executor) {
+        this(classLoader, executor, DEFAULT_CONCURRENCY, true);
+    }
+
+    /**
+     * 创建并发扫描的classpath资源加载器，每一个classpath根路径作为一个独立的任务交给executor执行，
+     * 在JDK 21及以上的版本中推荐使用{@code Executors.newVirtualThreadPerTaskExecutor()}，即每个根路径一个虚拟线程。
+     * 由于每个任务都会打开一个目录或JAR包，所以通过信号量限制同时扫描的根路径数量，避免打开过多的文件，
+     * 该限制是针对整个加载器的，同时进行的多次加载共享同一个上限。
+     *
+     * @param classLoader 类加载器
+     * @param executor    执行扫描任务的执行器
+     * @param concurrency 该加载器最大同时扫描的根路径数量
+     * @param ordered     true: 按照classpath的顺序返回资源  false: 按照根路径扫描完成的顺序返回资源
+     */
+    public StdLoader(ClassLoader classLoader, Executor executor, int concurrency, boolean ordered) {
+        if (classLoader == null) {
+            throw new IllegalArgumentException("classLoader must not be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor must not be null");
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        this.classLoader = classLoader;
+        this.executor = executor;
+        this.semaphore = new Semaphore(concurrency);
+        this.ordered = ordered;
+        this.pool = null;
+    }
+
+    /**
+     * 创建并行过滤JAR包条目的classpath资源加载器，根路径之间依然按照classpath的顺序依次加载，
+     * 但JAR包根路径通过{@link JarLoader#load(String, boolean, Filter, ForkJoinPool)}在线程池中并行过滤条目，资源的顺序不变。
+     * 目录根路径依然广度优先地依次遍历，因为并行遍历目录的结果是深度优先的顺序。
+     * 由于{@link ForkJoinPool}也是{@link Executor}，为了不改变{@link StdLoader#StdLoader(ClassLoader, Executor)}的含义，
+     * 该构造器不公开，通过{@link Loaders#parallel(ClassLoader, ForkJoinPool)}创建。
+     *
+     * @param classLoader 类加载器
+     * @param pool        并行过滤JAR包条目所使用的线程池
+     */
+    StdLoader(ClassLoader classLoader, ForkJoinPool pool) {
+        if (classLoader == null) {
+            throw new IllegalArgumentException("classLoader must not be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        this.classLoader = classLoader;
+        this.executor = null;
+        this.semaphore = null;
+        this.ordered = true;
+        this.pool = pool;
     }
 
     public Enumeration<Resource> load(String path, boolean recursively, Filter filter) throws IOException {
         while (path.startsWith("/")) path = path.substring(1);
         while (path.endsWith("/")) path = path.substring(0, path.length() - 1);
-        return new Enumerator(classLoader, path, recursively, filter != null ? filter : Filters.ALWAYS);
+        filter = Filters.normalize(filter);
+        if (filter == Filters.NEVER) {
+            return Collections.enumeration(Collections.<Resource>emptySet());
+        }
+        List<URL> roots = roots(classLoader, path);
+        if (executor != null) {
+            return new ConcurrentEnumerator(executor, semaphore, ordered, roots, path, recursively, filter);
+        }
+        return new Enumerator(roots, path, recursively, filter, pool);
+    }
+
+    /**
+     * 以{@link Stream}的方式加载指定路径的所有满足过滤条件的资源，资源流按照classpath的根路径拆分，
+     * 只剩下一个根路径时继续按照该根路径对应的文件或JAR包资源流拆分，所以{@link Stream#parallel()}可以充分利用多核。
+     * 并发扫描的资源加载器则直接包装{@link StdLoader#load(String, boolean, Filter)}返回的资源枚举器。
+     *
+     * @param path        资源路径
+     * @param recursively 递归加载
+     * @param filter      过滤器
+     * @return 资源流
+     * @throws IOException I/O 异常
+     */
+    @Override
+    public Stream<Resource> stream(String path, boolean recursively, Filter filter) throws IOException {
+        if (executor != null) {
+            return super.stream(path, recursively, filter);
+        }
+        while (path.startsWith("/")) path = path.substring(1);
+        while (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        filter = Filters.normalize(filter);
+        if (filter == Filters.NEVER) {
+            return Stream.empty();
+        }
+        List<URL> roots = roots(classLoader, path);
+        Queue<Stream<Resource>> streams = new ConcurrentLinkedQueue<Stream<Resource>>();
+        RootSpliterator spliterator = new RootSpliterator(roots, 0, roots.size(), path, recursively, filter, streams);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            Stream<Resource> stream;
+            while ((stream = streams.poll()) != null) stream.close();
+        });
+    }
+
+    /**
+     * 获取资源路径在classpath中的所有根URL，以URL的外部形式去重，避免URL.equals()/hashCode()解析主机名。
+     * 当资源路径为空时，由于{@link ClassLoader#getResources(String)}无法列出JAR包的根路径，
+     * 所以通过"META-INF/"目录推导出所有JAR包的根路径。
+     *
+     * @param classLoader 类加载器
+     * @param path        资源路径
+     * @return 所有根URL
+     * @throws IOException I/O 异常
+     */
+    private static List<URL> roots(ClassLoader classLoader, String path) throws IOException {
+        Map<String, URL> map = new LinkedHashMap<String, URL>();
+        if (path.length() > 0) {
+            Enumeration<URL> urls = classLoader.getResources(path);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                String key = url.toExternalForm();
+                if (!map.containsKey(key)) map.put(key, url);
+            }
+        } else {
+            URL root = classLoader.getResource(path);
+            if (root != null) map.put(root.toExternalForm(), root);
+            Enumeration<URL> urls = classLoader.getResources("META-INF/");
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                if (url.getProtocol().equalsIgnoreCase("jar")) {
+                    String spec = url.toString();
+                    int index = spec.lastIndexOf("!/");
+                    if (index < 0) continue;
+                    String key = spec.substring(0, index + "!/".length());
+                    if (map.containsKey(key)) continue;
+                    map.put(key, new URL(url, key));
+                }
+            }
+        }
+        return new ArrayList<URL>(map.values());
+    }
+
+    /**
+     * 创建根URL对应的资源加载器，目前支持file和jar两种协议，其他协议返回{@code null}
+     *
+     * @param url  根URL
+     * @param path 资源路径
+     * @return 根URL对应的资源加载器
+     * @throws IOException I/O 异常
+     */
+    private static Loader loader(URL url, String path) throws IOException {
+        String protocol = url.getProtocol();
+        if ("file".equalsIgnoreCase(protocol)) {
+            String uri = Uris.decode(url.getPath(), Charset.defaultCharset());
+            String root = uri.substring(0, uri.lastIndexOf(path));
+            URL context = new URL(url, "file:" + Uris.encodePath(root, Charset.defaultCharset()));
+            File file = new File(root);
+            return new FileLoader(context, file);
+        } else if ("jar".equalsIgnoreCase(protocol)) {
+            String uri = Uris.decode(url.getPath(), Charset.defaultCharset());
+            String root = uri.substring(0, uri.lastIndexOf(path));
+            URL context = new URL(url, "jar:" + Uris.encodePath(root, Charset.defaultCharset()));
+            JarURLConnection jarURLConnection = (JarURLConnection) url.openConnection();
+            JarFile jarFile = jarURLConnection.getJarFile();
+            return new JarLoader(context, jarFile);
+        } else {
+            return null;
+        }
     }
 
     private static class Enumerator extends ResourceEnumerator implements Enumeration<Resource> {
         private final String path;
         private final boolean recursively;
         private final Filter filter;
-        private final Enumeration<URL> urls;
+        private final Iterator<URL> urls;
+        private final ForkJoinPool pool;
         private Enumeration<Resource> resources;
 
-        Enumerator(ClassLoader classLoader, String path, boolean recursively, Filter filter) throws IOException {
+        Enumerator(List<URL> roots, String path, boolean recursively, Filter filter, ForkJoinPool pool) {
             this.path = path;
             this.recursively = recursively;
             this.filter = filter;
-            this.urls = load(classLoader, path);
+            this.urls = roots.iterator();
+            this.pool = pool;
             this.resources = Collections.enumeration(Collections.<Resource>emptySet());
         }
 
-        private Enumeration<URL> load(ClassLoader classLoader, String path) throws IOException {
-            if (path.length() > 0) {
-                return classLoader.getResources(path);
-            } else {
-                Set<URL> set = new LinkedHashSet<URL>();
-                set.add(classLoader.getResource(path));
-                Enumeration<URL> urls = classLoader.getResources("META-INF/");
-                while (urls.hasMoreElements()) {
-                    URL url = urls.nextElement();
-                    if (url.getProtocol().equalsIgnoreCase("jar")) {
-                        String spec = url.toString();
-                        int index = spec.lastIndexOf("!/");
-                        if (index < 0) continue;
-                        set.add(new URL(url, spec.substring(0, index + "!/".length())));
-                    }
+        public boolean hasMoreElements() {
+            if (next != null) {
+                return true;
+            }
+            while (!resources.hasMoreElements()) {
+                if (!urls.hasNext()) {
+                    return false;
+                }
+                try {
+                    Loader loader = loader(urls.next(), path);
+                    if (loader == null) continue;
+                    resources = pool != null && loader instanceof JarLoader
+                            ? ((JarLoader) loader).load(path, recursively, filter, pool)
+                            : loader.load(path, recursively, filter);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
                 }
-                return Collections.enumeration(set);
+            }
+            next = resources.nextElement();
+            return true;
+        }
+    }
+
+    /**
+     * 并发扫描的资源枚举器，构造时即将所有根路径的扫描任务提交给执行器，每个任务在信号量的限制下扫描完一个根路径的所有资源，
+     * 消费者按照classpath的顺序或者扫描完成的顺序依次取出各个根路径的扫描结果，扫描过程中的异常会在消费者取到该根路径时抛出。
+     */
+    private static class ConcurrentEnumerator extends ResourceEnumerator implements Enumeration<Resource> {
+        private final boolean ordered;
+        private final List<Scan> scans;
+        private final BlockingQueue<Scan> completions;
+        private int count;
+        private Iterator<Resource> resources;
+
+        ConcurrentEnumerator(Executor executor, Semaphore semaphore, boolean ordered, List<URL> roots, String path, boolean recursively, Filter filter) {
+            this.ordered = ordered;
+            this.scans = new ArrayList<Scan>(roots.size());
+            this.completions = new LinkedBlockingQueue<Scan>();
+            this.resources = Collections.<Resource>emptyList().iterator();
+            for (URL root : roots) {
+                Scan scan = new Scan(new Scanner(root, path, recursively, filter, semaphore), completions);
+                scans.add(scan);
+                executor.execute(scan);
             }
         }
 
         public boolean hasMoreElements() {
             if (next != null) {
                 return true;
-            } else if (!resources.hasMoreElements() && !urls.hasMoreElements()) {
-                return false;
-            } else if (resources.hasMoreElements()) {
-                next = resources.nextElement();
-                return true;
-            } else {
-                URL url = urls.nextElement();
-                String protocol = url.getProtocol();
-                if ("file".equalsIgnoreCase(protocol)) {
-                    try {
-                        String uri = Uris.decode(url.getPath(), Charset.defaultCharset());
-                        String root = uri.substring(0, uri.lastIndexOf(path));
-                        URL context = new URL(url, "file:" + Uris.encodePath(root, Charset.defaultCharset()));
-                        File file = new File(root);
-                        resources = new FileLoader(context, file).load(path, recursively, filter);
-                        return hasMoreElements();
-                    } catch (IOException e) {
-                        throw new IllegalStateException(e);
-                    }
-                } else if ("jar".equalsIgnoreCase(protocol)) {
-                    try {
-                        String uri = Uris.decode(url.getPath(), Charset.defaultCharset());
-                        String root = uri.substring(0, uri.lastIndexOf(path));
-                        URL context = new URL(url, "jar:" + Uris.encodePath(root, Charset.defaultCharset()));
-                        JarURLConnection jarURLConnection = (JarURLConnection) url.openConnection();
-                        JarFile jarFile = jarURLConnection.getJarFile();
-                        resources = new JarLoader(context, jarFile).load(path, recursively, filter);
-                        return hasMoreElements();
-                    } catch (IOException e) {
-                        throw new IllegalStateException(e);
-                    }
-                } else {
-                    return hasMoreElements();
+            }
+            while (!resources.hasNext()) {
+                if (count == scans.size()) {
+                    return false;
+                }
+                try {
+                    Scan scan = ordered ? scans.get(count) : completions.take();
+                    count++;
+                    resources = scan.get().iterator();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    if (cause instanceof Error) throw (Error) cause;
+                    throw new IllegalStateException(cause);
                 }
             }
+            next = resources.next();
+            return true;
+        }
+    }
+
+    /**
+     * 扫描一个根路径的所有资源
+     */
+    private static class Scanner implements Callable<List<Resource>> {
+        private final URL root;
+        private final String path;
+        private final boolean recursively;
+        private final Filter filter;
+        private final Semaphore semaphore;
+
+        Scanner(URL root, String path, boolean recursively, Filter filter, Semaphore semaphore) {
+            this.root = root;
+            this.path = path;
+            this.recursively = recursively;
+            this.filter = filter;
+            this.semaphore = semaphore;
+        }
+
+        public List<Resource> call() throws Exception {
+            semaphore.acquire();
+            try {
+                Loader loader = loader(root, path);
+                if (loader == null) {
+                    return Collections.emptyList();
+                }
+                List<Resource> resources = new ArrayList<Resource>();
+                Enumeration<Resource> enumeration = loader.load(path, recursively, filter);
+                while (enumeration.hasMoreElements()) {
+                    resources.add(enumeration.nextElement());
+                }
+                return resources;
+            } finally {
+                semaphore.release();
+            }
+        }
+    }
+
+    /**
+     * 根路径扫描任务，完成时将自己放入完成队列
+     */
+    private static class Scan extends FutureTask<List<Resource>> {
+        private final BlockingQueue<Scan> completions;
+
+        Scan(Scanner scanner, BlockingQueue<Scan> completions) {
+            super(scanner);
+            this.completions = completions;
+        }
+
+        @Override
+        protected void done() {
+            completions.offer(this);
+        }
+    }
+
+    /**
+     * 按照classpath根路径拆分的资源流拆分器，尚未打开的根路径区间对半拆分，
+     * 只剩下一个根路径时则打开该根路径并继续拆分它的资源流，拆分过的资源流留到整个资源流关闭时再关闭。
+     */
+    private static class RootSpliterator implements Spliterator<Resource> {
+        private final List<URL> roots;
+        private final String path;
+        private final boolean recursively;
+        private final Filter filter;
+        private final Queue<Stream<Resource>> streams;
+        private int from;
+        private int to;
+        private Stream<Resource> stream;
+        private Spliterator<Resource> spliterator;
+        private boolean shared;
+
+        RootSpliterator(List<URL> roots, int from, int to, String path, boolean recursively, Filter filter, Queue<Stream<Resource>> streams) {
+            this.roots = roots;
+            this.from = from;
+            this.to = to;
+            this.path = path;
+            this.recursively = recursively;
+            this.filter = filter;
+            this.streams = streams;
+        }
+
+        private boolean advance() {
+            if (stream != null) {
+                // 资源流拆分出去的部分可能还在其他线程中遍历，关闭资源流会关闭它们的目录流，所以留到整个资源流关闭时再关闭
+                if (!shared) {
+                    streams.remove(stream);
+                    stream.close();
+                }
+                stream = null;
+                spliterator = null;
+                shared = false;
+            }
+            while (from < to) {
+                try {
+                    Loader loader = loader(roots.get(from++), path);
+                    if (loader == null) continue;
+                    stream = loader.stream(path, recursively, filter);
+                    streams.offer(stream);
+                    spliterator = stream.spliterator();
+                    return true;
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return false;
+        }
+
+        public boolean tryAdvance(Consumer<? super Resource> action) {
+            while (spliterator == null || !spliterator.tryAdvance(action)) {
+                if (!advance()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public Spliterator<Resource> trySplit() {
+            int remaining = to - from;
+            if (remaining >= 2 || (remaining == 1 && spliterator != null)) {
+                int mid = from + remaining / 2;
+                RootSpliterator suffix = new RootSpliterator(roots, mid, to, path, recursively, filter, streams);
+                to = mid;
+                return suffix;
+            }
+            // 只剩一个尚未打开的根路径时先打开它，再拆分该根路径的资源流
+            if (spliterator == null && !advance()) {
+                return null;
+            }
+            Spliterator<Resource> split = spliterator.trySplit();
+            if (split != null) {
+                shared = true;
+            }
+            return split;
+        }
+
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
         }
     }
 
@@ -0,0 +1,674 @@
+package io.loadkit;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * ZIP包中央目录，通过{@link MappedByteBuffer}映射ZIP包的中央目录并原地遍历其中的记录，支持Zip64格式。
+ * 与{@link java.util.jar.JarFile}不同，遍历的过程中不会为每个条目创建{@link java.util.jar.JarEntry}对象以及解码条目名称，
+ * 也不会校验签名JAR包的清单和签名，只有满足条件的条目才会解码出名称，所以只适用于扫描资源。
+ * 记录通过其在中央目录中的位置来表示，配合{@link ZipDirectory#first()}和{@link ZipDirectory#next(int)}遍历，
+ * 映射的内存在该对象被回收之后才会释放，多个线程可以同时读取。
+ * 条目的数据通过{@link FileChannel#read(ByteBuffer, long)}按位置读取，不像{@link java.util.zip.ZipFile}那样在读取时持有共享的锁，
+ * 解压所需的{@link Inflater}和缓冲区来自按线程分条带的{@link InflaterPool}，所以多个线程可以无竞争地同时读取不同的条目。
+ * 第一次读取条目时才会重新打开文件，不再读取时需要调用{@link ZipDirectory#close()}关闭。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 16:20
+ */
+public class ZipDirectory implements Closeable {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_EOCD_SIZE = 56;
+    private static final int ZIP64_EXTRA = 0x0001;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int CEN_SIZE = 46;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int LOC_SIZE = 30;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int MAX_COMMENT = 0xFFFF;
+    private static final long MAGIC16 = 0xFFFFL;
+    private static final long MAGIC32 = 0xFFFFFFFFL;
+
+    private final File file;
+    private final ByteBuffer buffer;
+    private final int size;
+    /**
+     * ZIP包前面附加的数据的长度，例如自解压程序，记录中的本地文件头偏移量需要加上该长度
+     */
+    private final long shift;
+    /**
+     * 包含所有条目的索引，构建过一次之后软引用缓存起来，之后任何路径的加载都直接使用该索引
+     */
+    private volatile SoftReference<JarIndex> full;
+    /**
+     * 按照条目名称的原始字节散列的开放寻址表，元素为记录的位置加一，0代表空位，第一次按名称查找时构建
+     */
+    private volatile int[] table;
+    private volatile FileChannel channel;
+    private volatile boolean closed;
+    private final InflaterPool pool;
+
+    protected ZipDirectory(File file, ByteBuffer buffer, int size, long shift) {
+        this(file, buffer, size, shift, InflaterPool.shared());
+    }
+
+    protected ZipDirectory(File file, ByteBuffer buffer, int size, long shift, InflaterPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        this.file = file;
+        this.buffer = buffer;
+        this.size = size;
+        this.shift = shift;
+        this.pool = pool;
+    }
+
+    /**
+     * 打开ZIP包并映射其中央目录，映射完成之后文件即被关闭。
+     *
+     * @param file ZIP包文件
+     * @return ZIP包中央目录
+     * @throws IOException I/O 异常，或者文件不是合法的ZIP包
+     */
+    public static ZipDirectory open(File file) throws IOException {
+        return open(file, InflaterPool.shared());
+    }
+
+    /**
+     * 打开ZIP包并映射其中央目录，读取压缩条目时使用指定的解压对象池。
+     *
+     * @param file ZIP包文件
+     * @param pool 解压对象池
+     * @return ZIP包中央目录
+     * @throws IOException I/O 异常，或者文件不是合法的ZIP包
+     */
+    public static ZipDirectory open(File file, InflaterPool pool) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long length = channel.size();
+            int tail = (int) Math.min(length, EOCD_SIZE + MAX_COMMENT);
+            ByteBuffer end = ByteBuffer.allocate(tail).order(ByteOrder.LITTLE_ENDIAN);
+            read(channel, end, length - tail);
+            int eocd = -1;
+            for (int i = tail - EOCD_SIZE; i >= 0; i--) {
+                if (end.getInt(i) == EOCD_SIGNATURE && i + EOCD_SIZE + (end.getShort(i + 20) & 0xFFFF) <= tail) {
+                    eocd = i;
+                    break;
+                }
+            }
+            if (eocd < 0) {
+                throw new ZipException("end of central directory record not found: " + file);
+            }
+            long position = length - tail + eocd;
+            long count = end.getShort(eocd + 10) & MAGIC16;
+            long cenSize = end.getInt(eocd + 12) & MAGIC32;
+            long cenOffset = end.getInt(eocd + 16) & MAGIC32;
+            if (count == MAGIC16 || cenSize == MAGIC32 || cenOffset == MAGIC32) {
+                ByteBuffer locator = ByteBuffer.allocate(ZIP64_LOCATOR_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                if (position >= ZIP64_LOCATOR_SIZE) {
+                    read(channel, locator, position - ZIP64_LOCATOR_SIZE);
+                }
+                if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+                    // Zip64 中央目录结束记录紧挨在定位器之前，ZIP包前面附加了数据时其记录的偏移量并不可靠
+                    long zip64 = position - ZIP64_LOCATOR_SIZE - ZIP64_EOCD_SIZE;
+                    ByteBuffer record = ByteBuffer.allocate(ZIP64_EOCD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                    if (zip64 >= 0) {
+                        read(channel, record, zip64);
+                    }
+                    if (record.getInt(0) != ZIP64_EOCD_SIGNATURE) {
+                        zip64 = locator.getLong(8);
+                        record.clear();
+                        read(channel, record, zip64);
+                    }
+                    if (record.getInt(0) != ZIP64_EOCD_SIGNATURE) {
+                        throw new ZipException("zip64 end of central directory record not found: " + file);
+                    }
+                    position = zip64;
+                    count = record.getLong(32);
+                    cenSize = record.getLong(40);
+                    cenOffset = record.getLong(48);
+                }
+            }
+            long cenPosition = position - cenSize;
+            if (cenPosition < 0 || cenSize > Integer.MAX_VALUE || count > Integer.MAX_VALUE) {
+                throw new ZipException("invalid central directory: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, cenPosition, cenSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new ZipDirectory(file, buffer, (int) count, cenPosition - cenOffset, pool);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                throw new ZipException("unexpected end of file");
+            }
+        }
+    }
+
+    /**
+     * @return ZIP包文件
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 中央目录中的记录数量，包括目录条目以及重复的条目
+     *
+     * @return 记录数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取第一个记录的位置
+     *
+     * @return 第一个记录的位置，没有记录时返回-1
+     */
+    public int first() {
+        return check(0);
+    }
+
+    /**
+     * 获取下一个记录的位置
+     *
+     * @param record 当前记录的位置
+     * @return 下一个记录的位置，没有更多的记录时返回-1
+     */
+    public int next(int record) {
+        return check(record + CEN_SIZE + nameLength(record) + u16(record + 30) + u16(record + 32));
+    }
+
+    /**
+     * 校验记录的签名以及记录的定长部分和变长的名称、扩展字段、注释都在中央目录之内，
+     * 之后按照记录中的长度读取时不会越界，也不会把截断或者伪造的长度带到下一个记录。
+     */
+    private int check(int record) {
+        int limit = buffer.limit();
+        if (record == limit) {
+            return -1;
+        }
+        if (record < 0 || record + CEN_SIZE > limit
+                || buffer.getInt(record) != CEN_SIGNATURE
+                || (long) record + CEN_SIZE + nameLength(record) + u16(record + 30) + u16(record + 32) > limit) {
+            throw new IllegalStateException("invalid central directory record at " + record + " of " + file);
+        }
+        return record;
+    }
+
+    /**
+     * 获取记录中条目名称的字节数
+     *
+     * @param record 记录的位置
+     * @return 条目名称的字节数
+     */
+    public int nameLength(int record) {
+        return u16(record + 28);
+    }
+
+    /**
+     * 获取记录中条目名称的指定字节
+     *
+     * @param record 记录的位置
+     * @param index  字节在条目名称中的位置
+     * @return 字节
+     */
+    public byte nameByte(int record, int index) {
+        return buffer.get(record + CEN_SIZE + index);
+    }
+
+    /**
+     * 判断记录中的条目名称是否以指定的字节开头
+     *
+     * @param record 记录的位置
+     * @param prefix 前缀字节
+     * @return true: 以该前缀开头  false: 不以该前缀开头
+     */
+    public boolean startsWith(int record, byte[] prefix) {
+        if (nameLength(record) < prefix.length) {
+            return false;
+        }
+        int offset = record + CEN_SIZE;
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(offset + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 从指定位置开始查找记录中条目名称的字节
+     *
+     * @param record 记录的位置
+     * @param b      要查找的字节
+     * @param from   开始查找的位置
+     * @return 字节在条目名称中的位置，找不到时返回-1
+     */
+    public int indexOf(int record, byte b, int from) {
+        int offset = record + CEN_SIZE;
+        for (int i = from, length = nameLength(record); i < length; i++) {
+            if (buffer.get(offset + i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 判断记录是否为目录条目，即名称以"/"结尾
+     *
+     * @param record 记录的位置
+     * @return true: 目录条目  false: 文件条目
+     */
+    public boolean isDirectory(int record) {
+        int length = nameLength(record);
+        return length > 0 && nameByte(record, length - 1) == '/';
+    }
+
+    /**
+     * 按照UTF-8解码记录中的条目名称，与{@link java.util.jar.JarFile}的解码方式一致
+     *
+     * @param record 记录的位置
+     * @return 条目名称
+     */
+    public String name(int record) {
+        int length = nameLength(record);
+        byte[] bytes = new byte[length];
+        int offset = record + CEN_SIZE;
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * @param record 记录的位置
+     * @return 压缩方法，0 为不压缩，8 为DEFLATE
+     */
+    public int method(int record) {
+        return u16(record + 10);
+    }
+
+    /**
+     * @param record 记录的位置
+     * @return 未压缩数据的CRC-32校验值
+     */
+    public long crc(int record) {
+        return buffer.getInt(record + 16) & MAGIC32;
+    }
+
+    /**
+     * @param record 记录的位置
+     * @return 未压缩数据的字节数
+     */
+    public long size(int record) {
+        long size = buffer.getInt(record + 24) & MAGIC32;
+        return size == MAGIC32 ? zip64(record, 0) : size;
+    }
+
+    /**
+     * @param record 记录的位置
+     * @return 压缩数据的字节数
+     */
+    public long compressedSize(int record) {
+        long size = buffer.getInt(record + 20) & MAGIC32;
+        return size == MAGIC32 ? zip64(record, 1) : size;
+    }
+
+    /**
+     * @param record 记录的位置
+     * @return 本地文件头在ZIP包文件中的位置
+     */
+    public long offset(int record) {
+        long offset = buffer.getInt(record + 42) & MAGIC32;
+        return (offset == MAGIC32 ? zip64(record, 2) : offset) + shift;
+    }
+
+    /**
+     * 从Zip64扩展字段中读取取值为0xFFFFFFFF的字段，扩展字段中依次为未压缩大小、压缩大小以及本地文件头偏移量，但只包含取值溢出的字段
+     *
+     * @param record 记录的位置
+     * @param field  字段的序号，0 未压缩大小，1 压缩大小，2 本地文件头偏移量
+     * @return 字段的值
+     */
+    private long zip64(int record, int field) {
+        int position = record + CEN_SIZE + nameLength(record);
+        int end = position + u16(record + 30);
+        while (position + 4 <= end) {
+            int id = u16(position);
+            int length = u16(position + 2);
+            if (id == ZIP64_EXTRA) {
+                int offset = position + 4;
+                int[] fields = {24, 20, 42};
+                for (int i = 0; i < field; i++) {
+                    if ((buffer.getInt(record + fields[i]) & MAGIC32) == MAGIC32) offset += 8;
+                }
+                if (offset + 8 > position + 4 + length) {
+                    break;
+                }
+                return buffer.getLong(offset);
+            }
+            position += 4 + length;
+        }
+        throw new IllegalStateException("invalid zip64 extra field at " + record + " of " + file);
+    }
+
+    private int u16(int position) {
+        return buffer.getShort(position) & 0xFFFF;
+    }
+
+    /**
+     * 按名称查找条目的记录，名称相同的条目有多个时返回中央目录中的最后一个，与{@link java.util.zip.ZipFile#getEntry(String)}一致。
+     * 第一次查找时遍历一遍中央目录，按照名称的原始字节建立散列表，整个过程不解码任何名称。
+     *
+     * @param name 条目名称
+     * @return 记录的位置，找不到时返回-1
+     */
+    public int find(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("name must not be null");
+        }
+        int[] table = this.table;
+        if (table == null) {
+            this.table = table = hash();
+        }
+        byte[] bytes = name.getBytes(UTF_8);
+        int hash = 0;
+        for (byte b : bytes) hash = 31 * hash + b;
+        int mask = table.length - 1;
+        for (int i = mix(hash) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int record = table[i] - 1;
+            if (nameLength(record) == bytes.length && startsWith(record, bytes)) {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    private int[] hash() {
+        // 中央目录结束记录中的数量不一定可靠，以实际的记录数量为准，保证散列表至少一半是空位
+        int count = 0;
+        for (int record = first(); record >= 0; record = next(record)) count++;
+        int capacity = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+        int[] table = new int[capacity];
+        int mask = capacity - 1;
+        for (int record = first(); record >= 0; record = next(record)) {
+            int length = nameLength(record);
+            int offset = record + CEN_SIZE;
+            int hash = 0;
+            for (int i = 0; i < length; i++) hash = 31 * hash + buffer.get(offset + i);
+            int i = mix(hash) & mask;
+            while (table[i] != 0 && !equals(table[i] - 1, record)) i = (i + 1) & mask;
+            table[i] = record + 1;
+        }
+        return table;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean equals(int a, int b) {
+        int length = nameLength(a);
+        if (nameLength(b) != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(a + CEN_SIZE + i) != buffer.get(b + CEN_SIZE + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 打开记录对应条目的输入流，先按位置读取本地文件头得到数据的起始位置，不压缩的条目直接读取其数据，
+     * DEFLATE压缩的条目则使用解压对象池中的{@link Inflater}和缓冲区解压，输入流关闭时归还。
+     * 不校验数据的CRC-32校验值，与{@link java.util.zip.ZipFile#getInputStream(java.util.zip.ZipEntry)}一致。
+     *
+     * @param record 记录的位置
+     * @return 条目的输入流
+     * @throws IOException I/O 异常，或者条目的压缩方法不受支持
+     */
+    public InputStream getInputStream(int record) throws IOException {
+        int method = method(record);
+        if (method != STORED && method != DEFLATED) {
+            throw new ZipException("unsupported compression method " + method + " of entry " + name(record) + " in " + file);
+        }
+        long offset = offset(record);
+        ByteBuffer header = ByteBuffer.allocate(LOC_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (read(header, offset + header.position()) < 0) {
+                throw new EOFException("unexpected end of file: " + file);
+            }
+        }
+        if (header.getInt(0) != LOC_SIGNATURE) {
+            throw new ZipException("invalid local file header of entry " + name(record) + " in " + file);
+        }
+        long position = offset + LOC_SIZE + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+        if (method == STORED) {
+            return new EntryInputStream(this, position, size(record));
+        }
+        return pool.inflate(new EntryInputStream(this, position, compressedSize(record)), size(record));
+    }
+
+    /**
+     * 按位置读取文件，通道被其他线程的中断关闭时重新打开之后重试，当前线程被中断时则直接抛出异常。
+     */
+    private int read(ByteBuffer buffer, long position) throws IOException {
+        while (true) {
+            FileChannel channel = channel();
+            try {
+                return channel.read(buffer, position);
+            } catch (ClosedByInterruptException e) {
+                throw e;
+            } catch (ClosedChannelException e) {
+                if (closed) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        FileChannel channel = this.channel;
+        if (channel != null && channel.isOpen()) {
+            return channel;
+        }
+        synchronized (this) {
+            if (closed) {
+                throw new ClosedChannelException();
+            }
+            channel = this.channel;
+            if (channel == null || !channel.isOpen()) {
+                this.channel = channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            }
+            return channel;
+        }
+    }
+
+    /**
+     * 关闭读取条目所使用的文件，之后不能再打开条目的输入流，中央目录本身依然可以遍历
+     *
+     * @throws IOException I/O 异常
+     */
+    public synchronized void close() throws IOException {
+        closed = true;
+        FileChannel channel = this.channel;
+        if (channel != null) {
+            this.channel = null;
+            channel.close();
+        }
+    }
+
+    /**
+     * 获取指定路径的条目索引，只有名称与路径相同或者位于该路径下的文件条目才会被解码并放入索引，
+     * 非递归时子目录中的条目同样不会被解码，比较都直接在中央目录的原始字节上进行。
+     * 从根路径递归构建的索引包含了所有条目，会被软引用缓存起来供之后的加载使用。
+     *
+     * @param path        资源路径，不以"/"开头和结尾
+     * @param recursively 是否包括子目录中的条目
+     * @return 条目索引，可能包含该路径之外的条目
+     */
+    public JarIndex index(String path, boolean recursively) {
+        return index(path, recursively, null);
+    }
+
+    /**
+     * 获取指定路径的条目索引，与{@link ZipDirectory#index(String, boolean)}不同的是条目名称在解码之前还会交给字节名称过滤器做初步判断，
+     * 被排除的条目不会被解码也不会放入索引，所以这样构建的索引只适用于该过滤器，不会被缓存，
+     * 但已经缓存了包含所有条目的索引时依然直接返回缓存的索引。
+     *
+     * @param path        资源路径，不以"/"开头和结尾
+     * @param recursively 是否包括子目录中的条目
+     * @param filter      字节名称过滤器，为{@code null}时不做初步判断
+     * @return 条目索引，可能包含该路径之外的或者不满足过滤条件的条目
+     */
+    public JarIndex index(String path, boolean recursively, ByteNameFilter filter) {
+        SoftReference<JarIndex> reference = full;
+        JarIndex index = reference != null ? reference.get() : null;
+        if (index != null) {
+            return index;
+        }
+        index = build(path, recursively, filter);
+        if (path.length() == 0 && recursively && filter == null) {
+            full = new SoftReference<JarIndex>(index);
+        }
+        return index;
+    }
+
+    private JarIndex build(String path, boolean recursively, ByteNameFilter filter) {
+        byte[] prefix = path.getBytes(UTF_8);
+        List<String> list = new ArrayList<String>();
+        List<Integer> positions = new ArrayList<Integer>();
+        for (int record = first(); record >= 0; record = next(record)) {
+            if (isDirectory(record) || !startsWith(record, prefix)) {
+                continue;
+            }
+            int length = nameLength(record);
+            if (prefix.length > 0 && length > prefix.length && nameByte(record, prefix.length) != '/') {
+                continue;
+            }
+            int from = prefix.length > 0 ? prefix.length + 1 : 0;
+            if (!recursively && length > prefix.length && indexOf(record, (byte) '/', from) >= 0) {
+                continue;
+            }
+            if (filter != null && !filter.accept(buffer, record + CEN_SIZE, length)) {
+                continue;
+            }
+            list.add(name(record));
+            positions.add(record);
+        }
+        final String[] decoded = list.toArray(new String[list.size()]);
+        Integer[] order = new Integer[decoded.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        // 稳定排序，名称相同的记录保持在中央目录中的先后顺序
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return decoded[a].compareTo(decoded[b]);
+            }
+        });
+        // 重复的条目名称只保留最后一个记录，与{@link ZipDirectory#find(String)}以及{@link java.util.zip.ZipFile}一致
+        String[] names = new String[order.length];
+        int[] records = new int[order.length];
+        int size = 0;
+        for (Integer i : order) {
+            if (size == 0 || !decoded[i].equals(names[size - 1])) {
+                names[size++] = decoded[i];
+            }
+            records[size - 1] = positions.get(i);
+        }
+        return new JarIndex(Arrays.copyOf(names, size), Arrays.copyOf(records, size));
+    }
+
+    /**
+     * 按位置读取文件中一段区间的输入流，不改变通道的位置，所以多个输入流可以共享同一个通道
+     */
+    private static class EntryInputStream extends InputStream {
+        private final ZipDirectory directory;
+        private long position;
+        private final long end;
+
+        EntryInputStream(ZipDirectory directory, long position, long length) {
+            this.directory = directory;
+            this.position = position;
+            this.end = position + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, (int) Math.min(len, end - position));
+            int n = directory.read(buffer, position);
+            if (n < 0) {
+                throw new EOFException("unexpected end of file: " + directory.file);
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, end - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(end - position, Integer.MAX_VALUE);
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package io.loadkit;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * 映射的中央目录中的JAR包资源，持有其所在的{@link ZipDirectory}以及扫描时得到的条目记录位置，直接按位置读取其数据，
+ * 没有记录位置时才按名称查找，第一次查找需要遍历整个中央目录构建哈希表。
+ * 既不经过{@link URL#openStream()}，也不经过{@link java.util.zip.ZipFile}的共享锁，所以多个线程可以无竞争地同时读取。
+ * URL地址依然惰性构建，供需要的调用者使用。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 17:40
+ */
+public class ZipRes extends LazyRes implements Resource {
+    private final ZipDirectory directory;
+    private final int record;
+
+    public ZipRes(URL context, String name, ZipDirectory directory) {
+        this(context, name, directory, -1);
+    }
+
+    public ZipRes(URL context, String name, URL url, ZipDirectory directory) {
+        this(context, name, url, directory, -1);
+    }
+
+    /**
+     * 创建持有条目记录位置的资源，打开输入流时直接使用该记录而不再按名称查找
+     *
+     * @param context   JAR包URL上下文
+     * @param name      资源名称
+     * @param directory 资源所在的ZIP包中央目录
+     * @param record    条目记录在中央目录中的位置，未知时为-1
+     */
+    public ZipRes(URL context, String name, ZipDirectory directory, int record) {
+        super(context, name);
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must not be null");
+        }
+        this.directory = directory;
+        this.record = record;
+    }
+
+    public ZipRes(URL context, String name, URL url, ZipDirectory directory, int record) {
+        super(context, name, url);
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must not be null");
+        }
+        this.directory = directory;
+        this.record = record;
+    }
+
+    /**
+     * 获取资源所在的ZIP包中央目录
+     *
+     * @return 资源所在的ZIP包中央目录
+     */
+    public ZipDirectory getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        if (this.record >= 0) {
+            return directory.getInputStream(this.record);
+        }
+        int record = directory.find(getName());
+        if (record < 0) {
+            throw new FileNotFoundException("ZIP entry " + getName() + " not found in " + directory.getFile());
+        }
+        return directory.getInputStream(record);
+    }
+
+}
@@ -0,0 +1,112 @@
+package io.loadkit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * ANT风格路径匹配器测试，以原来的正则表达式转换结果作为基准，随机生成表达式和资源名称比较匹配结果，
+ * 同时检查{@link AntMatcher#accept(ByteBuffer, int, int)}和{@link AntMatcher#descend(String)}不会排除可能匹配的资源。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 21:10
+ */
+public class AntMatcherTest {
+    private static final String[] SYMBOLS = {"\\", "$", "(", ")", "+", ".", "[", "]", "^", "{", "}", "|"};
+    private static final String[] PATTERN_ATOMS = {"a", "b", "/", "é", "中", "\n", "x.class", "?", "*", "**", "**/", ".", "$", "(", "😀"};
+    private static final String[] NAME_ATOMS = {"a", "b", "/", "é", "中", "\n", "x.class", ".", "$", "(", "😀", "?", "*"};
+
+    /**
+     * 原来的ANT风格路径表达式到正则表达式的转换
+     */
+    private static Pattern legacy(String ant) {
+        String regex = ant;
+        for (String symbol : SYMBOLS) regex = regex.replace(symbol, '\\' + symbol);
+        regex = regex.replace("?", ".{1}");
+        regex = regex.replace("**/", "(.{0,}?/){0,}?");
+        regex = regex.replace("**", ".{0,}?");
+        regex = regex.replace("*", "[^/]{0,}?");
+        while (regex.startsWith("/")) regex = regex.substring(1);
+        while (regex.endsWith("/")) regex = regex.substring(0, regex.length() - 1);
+        return Pattern.compile(regex);
+    }
+
+    @Test
+    public void matchesLikeLegacyRegex() {
+        Random random = new Random(20261017L);
+        for (int p = 0; p < 3000; p++) {
+            String ant = TestSupport.random(random, PATTERN_ATOMS, 6);
+            AntMatcher matcher = new AntMatcher(ant);
+            Pattern pattern = legacy(ant);
+            for (int n = 0; n < 200; n++) {
+                String name = TestSupport.random(random, NAME_ATOMS, 7);
+                Assert.assertEquals("[" + ant + "] [" + name + "]", pattern.matcher(name).matches(), matcher.matches(name));
+            }
+        }
+    }
+
+    @Test
+    public void matchesCommonPatterns() {
+        Assert.assertTrue(new AntMatcher("io/loadkit/**/*.class").matches("io/loadkit/Loader.class"));
+        Assert.assertTrue(new AntMatcher("io/loadkit/**/*.class").matches("io/loadkit/a/b/Loader.class"));
+        Assert.assertFalse(new AntMatcher("io/loadkit/*.class").matches("io/loadkit/a/Loader.class"));
+        Assert.assertTrue(new AntMatcher("/META-INF/?ANIFEST.MF/").matches("META-INF/MANIFEST.MF"));
+        Assert.assertFalse(new AntMatcher("**/*.txt").matches("a/b.txt/c"));
+        Assert.assertTrue(new AntMatcher("a$(b).txt").matches("a$(b).txt"));
+    }
+
+    @Test
+    public void acceptNeverRejectsMatchingNames() {
+        Random random = new Random(42L);
+        for (int p = 0; p < 3000; p++) {
+            String ant = TestSupport.random(random, PATTERN_ATOMS, 6);
+            AntMatcher matcher = new AntMatcher(ant);
+            for (int n = 0; n < 200; n++) {
+                String name = TestSupport.random(random, NAME_ATOMS, 7);
+                byte[] bytes = name.getBytes(TestSupport.UTF_8);
+                ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 7);
+                buffer.position(3);
+                buffer.put(bytes);
+                buffer.position(1);
+                if (matcher.matches(name)) {
+                    Assert.assertTrue("[" + ant + "] [" + name + "]", matcher.accept(buffer, 3, bytes.length));
+                }
+                Assert.assertEquals(1, buffer.position());
+                Assert.assertEquals(buffer.capacity(), buffer.limit());
+            }
+        }
+    }
+
+    @Test
+    public void descendNeverPrunesMatchingNames() {
+        Random random = new Random(7L);
+        for (int p = 0; p < 3000; p++) {
+            String ant = TestSupport.random(random, PATTERN_ATOMS, 6);
+            AntMatcher matcher = new AntMatcher(ant);
+            for (int n = 0; n < 200; n++) {
+                String name = TestSupport.random(random, NAME_ATOMS, 7);
+                if (!matcher.matches(name)) {
+                    continue;
+                }
+                // 只检查真正包含该资源的目录，即目录名称短于资源名称
+                for (int slash = name.indexOf('/'); slash >= 0 && slash < name.length() - 1; slash = name.indexOf('/', slash + 1)) {
+                    String directory = name.substring(0, slash + 1);
+                    Assert.assertTrue("[" + ant + "] [" + directory + "]", matcher.descend(directory));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void filterKeepsLegacyPattern() {
+        AntFilter filter = new AntFilter("io/**/*.class");
+        Assert.assertEquals(legacy("io/**/*.class").pattern(), filter.getPattern().pattern());
+        Assert.assertSame(filter.getPattern(), filter.getPattern());
+        Assert.assertEquals(new AntFilter("io/**/*.class"), filter);
+        Assert.assertNotEquals(new RegexFilter(filter.getPattern()), filter);
+    }
+
+}
@@ -0,0 +1,74 @@
+package io.loadkit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * 字节名称过滤视图测试，随机组合{@link AllFilter}、{@link AnyFilter}、{@link AntFilter}以及{@link RegexFilter}，
+ * 检查{@link Filters#byBytes(Filter)}返回的视图对于满足过滤器的资源名称一定返回true。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 22:10
+ */
+public class ByteNameFilterTest {
+    private static final String[] ANT_ATOMS = {"a", "b", "/", "é", "中", "?", "*", "**", "**/", ".class", "😀"};
+    private static final String[] NAME_ATOMS = {"a", "b", "/", "é", "中", ".class", "😀", "\n"};
+
+    private static Filter filter(Random random, int depth) {
+        int kind = random.nextInt(depth > 0 ? 4 : 2);
+        switch (kind) {
+            case 0:
+                return new AntFilter(TestSupport.random(random, ANT_ATOMS, 5));
+            case 1:
+                return random.nextInt(4) == 0 ? new RegexFilter(".*a.*") : new AntFilter(TestSupport.random(random, ANT_ATOMS, 3));
+            default: {
+                MixFilter mix = kind == 2 ? new AllFilter() : new AnyFilter();
+                for (int i = random.nextInt(4); i >= 0; i--) {
+                    mix.add(filter(random, depth - 1));
+                }
+                return mix;
+            }
+        }
+    }
+
+    @Test
+    public void neverRejectsAcceptedNames() {
+        Random random = new Random(20261017L);
+        int views = 0;
+        for (int f = 0; f < 2000; f++) {
+            Filter filter = filter(random, 3);
+            ByteNameFilter view = Filters.byBytes(filter);
+            if (view == null) {
+                continue;
+            }
+            views++;
+            for (int n = 0; n < 200; n++) {
+                String name = TestSupport.random(random, NAME_ATOMS, 6);
+                byte[] bytes = name.getBytes(TestSupport.UTF_8);
+                ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 8);
+                buffer.position(5);
+                buffer.put(bytes);
+                buffer.position(2);
+                boolean accepted = view.accept(buffer, 5, bytes.length);
+                if (filter.filtrate(name, null)) {
+                    Assert.assertTrue(filter + " [" + name + "]", accepted);
+                }
+                Assert.assertEquals(2, buffer.position());
+            }
+        }
+        Assert.assertTrue(views > 1000);
+    }
+
+    @Test
+    public void viewsOnlyWhenSound() {
+        Assert.assertNull(Filters.byBytes(new RegexFilter(".*")));
+        Assert.assertNull(Filters.byBytes(new AnyFilter(new AntFilter("*.class"), new RegexFilter(".*"))));
+        Assert.assertNotNull(Filters.byBytes(new AllFilter(new AntFilter("*.class"), new RegexFilter(".*"))));
+        AntFilter ant = new AntFilter("a/*.class");
+        Assert.assertSame(ant, Filters.byBytes(ant));
+    }
+
+}
@@ -0,0 +1,147 @@
+package io.loadkit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存资源加载器测试，检查并发的相同加载只扫描一次、条目过期、扫描失败不缓存以及条目的淘汰和作废。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/18 12:20
+ */
+public class CachingLoaderTest {
+
+    /**
+     * 记录扫描次数的委派加载器，每个路径返回一个以该路径命名的资源，可以让扫描等待放行或者抛出异常
+     */
+    private static class Source extends ResourceLoader {
+        private final AtomicInteger scans = new AtomicInteger();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private volatile CountDownLatch gate;
+        private volatile int failures;
+
+        public Enumeration<Resource> load(String path, boolean recursively, Filter filter) throws IOException {
+            scans.incrementAndGet();
+            entered.countDown();
+            CountDownLatch gate = this.gate;
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+            if (failures > 0) {
+                failures--;
+                throw new IOException("boom");
+            }
+            Resource resource = new Res(path, new URL("file:/" + path));
+            return Collections.enumeration(Collections.singletonList(resource));
+        }
+    }
+
+    private static List<Resource> load(Loader loader, String path) throws IOException {
+        return Collections.list(loader.load(path, true, new AntFilter(path + "/**")));
+    }
+
+    @Test
+    public void scansConcurrentLoadsOnce() throws Exception {
+        final Source source = new Source();
+        source.gate = new CountDownLatch(1);
+        final CachingLoader loader = new CachingLoader(source);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Resource>>> futures = new ArrayList<Future<List<Resource>>>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(callers.submit(new Callable<List<Resource>>() {
+                    public List<Resource> call() throws IOException {
+                        return load(loader, "a");
+                    }
+                }));
+            }
+            Assert.assertTrue(source.entered.await(5, TimeUnit.SECONDS));
+            // 等其他线程都开始等待同一个扫描结果之后再放行
+            for (int i = 0; i < 100 && loader.getHits() < 7; i++) Thread.sleep(10);
+            source.gate.countDown();
+            for (Future<List<Resource>> future : futures) {
+                Assert.assertEquals(Collections.singletonList("a"), TestSupport.names(future.get()));
+            }
+        } finally {
+            callers.shutdown();
+        }
+        Assert.assertEquals(1, source.scans.get());
+        Assert.assertEquals(1, loader.getMisses());
+        Assert.assertEquals(7, loader.getHits());
+    }
+
+    @Test
+    public void expiresAfterTtl() throws Exception {
+        Source source = new Source();
+        CachingLoader loader = new CachingLoader(source, 16, 200, TimeUnit.MILLISECONDS);
+        load(loader, "a");
+        load(loader, "a");
+        Assert.assertEquals(1, source.scans.get());
+        Thread.sleep(300);
+        load(loader, "a");
+        Assert.assertEquals(2, source.scans.get());
+        load(loader, "a");
+        Assert.assertEquals(2, source.scans.get());
+    }
+
+    @Test
+    public void doesNotCacheFailures() throws IOException {
+        Source source = new Source();
+        source.failures = 1;
+        CachingLoader loader = new CachingLoader(source);
+        try {
+            load(loader, "a");
+            Assert.fail("the scan failure should be thrown");
+        } catch (IOException e) {
+            Assert.assertEquals("boom", e.getMessage());
+        }
+        Assert.assertEquals(1, load(loader, "a").size());
+        Assert.assertEquals(2, source.scans.get());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedAndInvalidates() throws IOException {
+        Source source = new Source();
+        CachingLoader loader = new CachingLoader(source, 2);
+        load(loader, "a");
+        load(loader, "b");
+        load(loader, "a");
+        load(loader, "c");
+        Assert.assertEquals(3, source.scans.get());
+        // b最久没有使用，已经被淘汰
+        load(loader, "a");
+        Assert.assertEquals(3, source.scans.get());
+        load(loader, "b");
+        Assert.assertEquals(4, source.scans.get());
+        // 作废某个路径时不论其他加载参数
+        Collections.list(loader.load("b", false));
+        Assert.assertEquals(5, source.scans.get());
+        loader.invalidate("b");
+        load(loader, "b");
+        Collections.list(loader.load("b", false));
+        Assert.assertEquals(7, source.scans.get());
+        loader.invalidateAll();
+        load(loader, "b");
+        Assert.assertEquals(8, source.scans.get());
+    }
+
+}
@@ -0,0 +1,161 @@
+package io.loadkit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 文件资源加载器测试，比较广度优先加载、游标模式遍历以及并行加载的结果和顺序，检查很深的目录不会导致栈溢出，
+ * 以及并行资源流确实被拆分到多个线程。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/18 10:20
+ */
+public class FileLoaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 生成多层目录，每个目录下有若干文件
+     */
+    static File tree(File root, int width, int depth, int files) throws IOException {
+        List<String> names = new ArrayList<String>();
+        tree(names, "", width, depth, files);
+        return TestSupport.files(root, names.toArray(new String[0]));
+    }
+
+    private static void tree(List<String> names, String prefix, int width, int depth, int files) {
+        for (int i = 0; i < files; i++) {
+            names.add(prefix + "f" + i + (i % 2 == 0 ? ".txt" : ".class"));
+        }
+        if (depth > 0) {
+            for (int i = 0; i < width; i++) {
+                tree(names, prefix + "d" + i + "/", width, depth - 1, files);
+            }
+        }
+    }
+
+    /**
+     * 在有四个工作线程的线程池中遍历并行资源流，每个资源停顿片刻让其他工作线程有机会窃取拆分出去的部分，
+     * 不使用公共线程池是因为它的并行度取决于机器的处理器数量
+     *
+     * @return 参与遍历的线程数量
+     */
+    static int threads(final Stream<Resource> stream, final Set<String> names) throws Exception {
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            pool.submit(() -> names.addAll(stream.parallel().peek(resource -> {
+                threads.add(Thread.currentThread());
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }).map(Resource::getName).collect(Collectors.toList()))).get();
+        } finally {
+            stream.close();
+            pool.shutdown();
+        }
+        return threads.size();
+    }
+
+    @Test
+    public void splitsParallelStream() throws Exception {
+        File root = tree(folder.newFolder("root"), 4, 2, 8);
+        FileLoader loader = new FileLoader(root);
+        Set<String> expected = new HashSet<String>(TestSupport.names(Collections.list(loader.load("", true, null))));
+        Assert.assertEquals(21 * 8, expected.size());
+        Set<String> actual = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        Assert.assertTrue(threads(loader.stream("", true, null), actual) > 1);
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void splitsFlatDirectory() throws Exception {
+        File root = tree(folder.newFolder("flat"), 0, 0, 200);
+        FileLoader loader = new FileLoader(root);
+        Set<String> actual = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        Assert.assertTrue(threads(loader.stream("", false, new AntFilter("*.txt")), actual) > 1);
+        Assert.assertEquals(100, actual.size());
+    }
+
+    private static int depth(String name) {
+        int depth = 0;
+        for (int i = name.indexOf('/'); i >= 0; i = name.indexOf('/', i + 1)) depth++;
+        return depth;
+    }
+
+    @Test
+    public void walksLikeBreadthFirstLoad() throws IOException {
+        File root = tree(folder.newFolder("walk"), 3, 3, 4);
+        FileLoader loader = new FileLoader(root);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Filter[] filters = {null, new AntFilter("**/*.txt"), new AntFilter("d1/**/f1.class"), new RegexFilter(".*d2/f.*")};
+            for (String path : new String[]{"", "d1", "d1/d2", "d1/f0.txt", "none"}) {
+                for (boolean recursively : new boolean[]{false, true}) {
+                    for (Filter filter : filters) {
+                        String message = path + " " + recursively + " " + filter;
+                        List<String> load = TestSupport.names(Collections.list(loader.load(path, recursively, filter)));
+                        List<String> walk = TestSupport.names(Collections.list(loader.walk(path, recursively, filter)));
+                        Assert.assertEquals(message, new HashSet<String>(load), new HashSet<String>(walk));
+                        Assert.assertEquals(message, load.size(), walk.size());
+                        // 广度优先加载的资源深度不会减小，深度优先遍历时同一个子目录下的资源是连续的
+                        for (int i = 1; i < load.size(); i++) {
+                            Assert.assertTrue(message, depth(load.get(i - 1)) <= depth(load.get(i)));
+                        }
+                        Set<String> finished = new HashSet<String>();
+                        String current = null;
+                        for (String name : walk) {
+                            String top = name.indexOf('/', path.length() + 1) < 0 ? "" : name.substring(0, name.indexOf('/', path.length() + 1));
+                            if (!top.equals(current)) {
+                                Assert.assertTrue(message + " " + name, top.length() == 0 || finished.add(top));
+                                current = top;
+                            }
+                        }
+                        Assert.assertEquals(message, walk, TestSupport.names(Collections.list(loader.load(path, recursively, filter, pool))));
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void walksDeepTreesWithoutRecursion() throws IOException {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 1000; i++) name.append("d/");
+        name.append("deep.txt");
+        File root = TestSupport.files(folder.newFolder("deep"), name.toString());
+        FileLoader loader = new FileLoader(root);
+        Assert.assertEquals(Collections.singletonList(name.toString()), TestSupport.names(Collections.list(loader.load("", true, new AntFilter("**/*.txt")))));
+        Assert.assertEquals(Collections.singletonList(name.toString()), TestSupport.names(Collections.list(loader.walk("", true, new AntFilter("**/*.txt")))));
+    }
+
+    @Test
+    public void closesWalkEarly() throws IOException {
+        File root = tree(folder.newFolder("close"), 2, 2, 3);
+        CloseableEnumeration<Resource> walk = new FileLoader(root).walk("", true, null);
+        Assert.assertTrue(walk.hasMoreElements());
+        walk.nextElement();
+        walk.close();
+        walk.close();
+        Assert.assertFalse(walk.hasMoreElements());
+    }
+
+}
@@ -0,0 +1,157 @@
+package io.loadkit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 解压对象池测试，检查解压结果、重复关闭、对象复用以及没有关闭的输入流被回收之后的泄漏计数。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 22:30
+ */
+public class InflaterPoolTest {
+
+    private static byte[] content(int size) {
+        return TestSupport.bytes(new Random(size), size);
+    }
+
+    /**
+     * raw DEFLATE格式压缩，与ZIP包中的压缩条目一致
+     */
+    private static byte[] deflate(byte[] content) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Test
+    public void inflatesLikeInflater() throws IOException {
+        InflaterPool pool = new InflaterPool(1, 2, 512);
+        for (int size : new int[]{0, 1, 511, 512, 513, 100000}) {
+            byte[] content = content(size);
+            InputStream in = pool.inflate(new ByteArrayInputStream(deflate(content)), size);
+            try {
+                Assert.assertEquals(size, in.available());
+                Assert.assertArrayEquals(content, TestSupport.read(in));
+                Assert.assertEquals(0, in.available());
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    @Test
+    public void reusesAfterClose() throws IOException {
+        InflaterPool pool = new InflaterPool(1, 2, 512);
+        byte[] compressed = deflate(content(10000));
+        for (int i = 0; i < 100; i++) {
+            InputStream in = pool.inflate(new ByteArrayInputStream(compressed), -1);
+            TestSupport.read(in);
+            in.close();
+        }
+        Assert.assertEquals(1, pool.getCreated());
+        Assert.assertEquals(0, pool.getLeaks());
+    }
+
+    @Test
+    public void closesTwiceSafely() throws IOException {
+        InflaterPool pool = new InflaterPool(1, 2, 512);
+        byte[] compressed = deflate(content(1000));
+        InputStream first = pool.inflate(new ByteArrayInputStream(compressed), -1);
+        first.close();
+        first.close();
+        // 重复关闭不能把同一个Inflater归还两次，否则两个输入流会共用一个Inflater
+        InputStream a = pool.inflate(new ByteArrayInputStream(compressed), -1);
+        InputStream b = pool.inflate(new ByteArrayInputStream(compressed), -1);
+        try {
+            Assert.assertArrayEquals(TestSupport.read(a), TestSupport.read(b));
+            Assert.assertEquals(2, pool.getCreated());
+        } finally {
+            a.close();
+            b.close();
+        }
+        try {
+            first.read();
+            Assert.fail("reading a closed stream should fail");
+        } catch (IOException expected) {
+            // 关闭之后不能再读取
+        }
+    }
+
+    @Test
+    public void closesConcurrentlySafely() throws Exception {
+        byte[] compressed = deflate(content(1000));
+        for (int round = 0; round < 200; round++) {
+            final InflaterPool pool = new InflaterPool(1, 4, 512);
+            final InputStream stream = pool.inflate(new ByteArrayInputStream(compressed), -1);
+            final CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[4];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(new Runnable() {
+                    public void run() {
+                        try {
+                            start.await();
+                            stream.close();
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            start.countDown();
+            for (Thread thread : threads) thread.join();
+            // 同一个Inflater只能被归还一次，之后借出的两个Inflater必须是不同的对象
+            Inflater a = pool.acquire();
+            Inflater b = pool.acquire();
+            Assert.assertNotSame(a, b);
+            pool.release(a);
+            pool.release(b);
+        }
+    }
+
+    @Test
+    public void countsLeakedStreams() throws Exception {
+        InflaterPool pool = new InflaterPool(1, 2, 512);
+        byte[] compressed = deflate(content(1000));
+        for (int i = 0; i < 10; i++) {
+            pool.inflate(new ByteArrayInputStream(compressed), -1).read();
+        }
+        for (int i = 0; i < 50 && pool.getLeaks() < 10; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(10, pool.getLeaks());
+        // 泄漏的Inflater已经释放，不会回到池中
+        Inflater inflater = pool.acquire();
+        Assert.assertEquals(11, pool.getCreated());
+        pool.release(inflater);
+    }
+
+    @Test
+    public void dropsBuffersOfOtherSizes() {
+        InflaterPool pool = new InflaterPool(1, 1, 512);
+        pool.releaseBuffer(new byte[100]);
+        Assert.assertEquals(512, pool.acquireBuffer().length);
+    }
+
+}
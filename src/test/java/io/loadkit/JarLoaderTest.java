@@ -0,0 +1,107 @@
+package io.loadkit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+/**
+ * JAR包资源加载器测试，随机生成名称中包含"/"、"-"、"0"以及非ASCII字符的条目，这些字符在排序时紧挨着"/"，
+ * 以逐个判断所有条目名称作为基准，检查基于有序索引的前缀查询在两种模式下的结果和顺序。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/18 11:10
+ */
+public class JarLoaderTest {
+    private static final String[] NAME_ATOMS = {"a", "b", "/", "-", ".", "0", "é", "中", "😀", ".txt"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 逐个判断所有条目名称得到的结果：先是与路径相同的条目，再是该路径目录下的条目，都按照名称排序
+     */
+    private static List<String> expected(TreeSet<String> names, String path, boolean recursively) {
+        List<String> expected = new ArrayList<String>();
+        if (path.length() > 0 && names.contains(path)) {
+            expected.add(path);
+        }
+        String folder = path.length() > 0 ? path + "/" : path;
+        for (String name : names) {
+            if (name.startsWith(folder) && (recursively || name.indexOf('/', folder.length()) < 0)) {
+                expected.add(name);
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    public void loadsByPrefixInNameOrder() throws IOException {
+        Random random = new Random(20261018L);
+        TreeSet<String> entries = new TreeSet<String>();
+        while (entries.size() < 2000) {
+            String name = TestSupport.random(random, NAME_ATOMS, 8);
+            if (name.length() > 0 && !name.startsWith("/")) entries.add(name);
+        }
+        TreeSet<String> names = new TreeSet<String>();
+        List<String> paths = new ArrayList<String>();
+        paths.add("");
+        for (String entry : entries) {
+            if (!entry.endsWith("/")) names.add(entry);
+            int slash = entry.lastIndexOf('/');
+            if (slash > 0) paths.add(entry.substring(0, slash));
+            if (paths.size() < 200 && !entry.endsWith("/")) paths.add(entry);
+        }
+        File file = TestSupport.jar(folder.newFile("names.jar"), entries.toArray(new String[0]));
+        JarFile jarFile = new JarFile(file);
+        JarLoader mapped = new JarLoader(file, true);
+        try {
+            JarLoader plain = new JarLoader(new URL("jar:" + file.toURI().toURL() + "!/"), jarFile);
+            for (String path : paths) {
+                // 两端的"/"会被忽略
+                if (path.endsWith("/")) continue;
+                for (boolean recursively : new boolean[]{false, true}) {
+                    List<String> expected = expected(names, path, recursively);
+                    String message = path + " " + recursively;
+                    Assert.assertEquals(message, expected, TestSupport.names(Collections.list(plain.load(path, recursively))));
+                    Assert.assertEquals(message, expected, TestSupport.names(Collections.list(mapped.load(path, recursively))));
+                    Assert.assertEquals(message, expected, plain.stream(path, recursively, null).map(Resource::getName).collect(Collectors.toList()));
+                }
+            }
+        } finally {
+            mapped.close();
+            jarFile.close();
+        }
+    }
+
+    @Test
+    public void indexesSortedDistinctNames() throws IOException {
+        File file = TestSupport.jar(folder.newFile("index.jar"), "b/", "b/x", "a/b-", "a/b/c", "a/b", "a/b0", "a/b/", "中/x", "😀", "a/bé");
+        JarFile jarFile = new JarFile(file);
+        try {
+            JarIndex index = JarIndex.of(jarFile);
+            Assert.assertSame(index, JarIndex.of(jarFile));
+            List<String> names = new ArrayList<String>();
+            for (int i = 0; i < index.size(); i++) names.add(index.get(i));
+            Assert.assertEquals(new ArrayList<String>(new TreeSet<String>(names)), names);
+            Assert.assertFalse(names.contains("a/b/"));
+            int from = index.lowerBound("a/b/");
+            int to = index.upperBound("a/b/", from);
+            Assert.assertEquals(Collections.singletonList("a/b/c"), names.subList(from, to));
+        } finally {
+            jarFile.close();
+        }
+    }
+
+}
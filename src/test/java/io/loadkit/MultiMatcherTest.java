@@ -0,0 +1,109 @@
+package io.loadkit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * 多模式匹配器测试，以逐个判断子过滤器的OR逻辑作为基准，随机生成ANT风格路径表达式、正则表达式以及普通过滤器的组合，
+ * 比较{@link MultiMatcher}以及编译之后的{@link AnyFilter}的过滤结果。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 21:30
+ */
+public class MultiMatcherTest {
+    private static final String[] ANT_ATOMS = {"a", "b", "io", "/", "中", ".class", ".txt", "?", "*", "**", "**/", "$"};
+    private static final String[] REGEXES = {".*\\.class", "io/.*", "a+b", "(a|b)/.*", "\\Qa.b\\E.*", ".*(b)\\1", "(?i)A.*", "(?<n>a)\\k<n>.*", "[^/]*", "x"};
+    private static final String[] NAME_ATOMS = {"a", "b", "io", "/", "中", ".class", ".txt", "$", "A", "x", "\n"};
+
+    private static List<Filter> filters(Random random) {
+        List<Filter> filters = new ArrayList<Filter>();
+        for (int i = MultiMatcher.THRESHOLD + random.nextInt(24); i > 0; i--) {
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                filters.add(new AntFilter(TestSupport.random(random, ANT_ATOMS, 5)));
+            } else if (kind < 8) {
+                filters.add(new RegexFilter(REGEXES[random.nextInt(REGEXES.length)]));
+            } else if (kind < 9) {
+                filters.add(new RegexFilter(Pattern.compile(REGEXES[random.nextInt(REGEXES.length)], Pattern.CASE_INSENSITIVE)));
+            } else {
+                final int length = random.nextInt(6);
+                filters.add(new Filter() {
+                    public boolean filtrate(String name, URL url) {
+                        return name.length() == length;
+                    }
+                });
+            }
+        }
+        return filters;
+    }
+
+    private static boolean loop(List<Filter> filters, String name) {
+        for (Filter filter : filters) {
+            if (filter.filtrate(name, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void matchesLikePlainLoop() {
+        Random random = new Random(20261017L);
+        for (int f = 0; f < 500; f++) {
+            List<Filter> filters = filters(random);
+            MultiMatcher matcher = new MultiMatcher(filters.toArray(new Filter[0]));
+            Filter[] others = matcher.getOthers();
+            AnyFilter any = new AnyFilter(filters);
+            for (int n = 0; n < 300; n++) {
+                String name = TestSupport.random(random, NAME_ATOMS, 6);
+                boolean expected = loop(filters, name);
+                boolean actual = matcher.matches(name);
+                for (Filter other : others) {
+                    actual = actual || other.filtrate(name, null);
+                }
+                Assert.assertEquals(filters + " [" + name + "]", expected, actual);
+                Assert.assertEquals(filters + " [" + name + "]", expected, any.filtrate(name, null));
+            }
+        }
+    }
+
+    @Test
+    public void recompilesAfterChange() {
+        AnyFilter any = new AnyFilter();
+        for (int i = 0; i < MultiMatcher.THRESHOLD; i++) {
+            any.add(new AntFilter("p" + i + "/**"));
+        }
+        Assert.assertTrue(any.filtrate("p3/a.class", null));
+        Assert.assertFalse(any.filtrate("q/a.class", null));
+        any.add(new AntFilter("q/*.class"));
+        Assert.assertTrue(any.filtrate("q/a.class", null));
+        any.remove(new AntFilter("p3/**"));
+        Assert.assertFalse(any.filtrate("p3/a.class", null));
+    }
+
+    @Test
+    public void keepsSubclassesAsOthers() {
+        Filter custom = new AntFilter("a/*") {
+            @Override
+            public boolean filtrate(String name) {
+                return false;
+            }
+        };
+        Filter[] filters = new Filter[MultiMatcher.THRESHOLD + 1];
+        for (int i = 0; i < MultiMatcher.THRESHOLD; i++) {
+            filters[i] = new RegexFilter("r" + i);
+        }
+        filters[MultiMatcher.THRESHOLD] = custom;
+        MultiMatcher matcher = new MultiMatcher(filters);
+        Assert.assertArrayEquals(new Filter[]{custom}, matcher.getOthers());
+        Assert.assertFalse(matcher.matches("a/b"));
+        Assert.assertTrue(matcher.matches("r7"));
+    }
+
+}
@@ -0,0 +1,97 @@
+package io.loadkit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模式表达式资源加载器测试，在有多个根目录的类加载器上比较{@link PatternLoader#loadAll(java.util.Collection)}
+ * 与逐个调用{@link PatternLoader#load(String)}的结果，以及加载计划缓存的命中和淘汰。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/18 9:40
+ */
+public class PatternLoaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertSameAsLoad(PatternLoader loader, List<String> patterns) throws IOException {
+        Map<String, List<Resource>> all = loader.loadAll(patterns);
+        Assert.assertEquals(patterns.size(), all.size());
+        for (String pattern : patterns) {
+            List<Resource> expected = Collections.list(loader.load(pattern));
+            Assert.assertEquals(pattern, TestSupport.names(expected), TestSupport.names(all.get(pattern)));
+        }
+    }
+
+    @Test
+    public void loadsAllLikeLoadOnSeveralRoots() throws IOException {
+        File d1 = TestSupport.files(folder.newFolder("d1"), "x/a.txt", "x/z/c.class");
+        File d2 = TestSupport.files(folder.newFolder("d2"), "y/b.txt", "y/z/d.txt", "x/e.txt");
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{d1.toURI().toURL(), d2.toURI().toURL()}, null);
+        try {
+            List<String> patterns = Arrays.asList("**/*.txt", "y/*.txt", "x/**", "y/**/*.txt", "x/z/*.class", "*.txt");
+            assertSameAsLoad(new AntLoader(new StdLoader(classLoader)), patterns);
+            assertSameAsLoad(new RegexLoader(new StdLoader(classLoader)), Arrays.asList(".*\\.txt", "y/[^/]*\\.txt", "x/.*"));
+            Map<String, List<Resource>> all = new AntLoader(new StdLoader(classLoader)).loadAll(patterns);
+            // 第二个根目录下的资源不能因为并入空的根路径而丢失
+            Assert.assertEquals(Collections.singletonList("y/b.txt"), TestSupport.names(all.get("y/*.txt")));
+            Assert.assertEquals(Arrays.asList("y/b.txt", "y/z/d.txt"), TestSupport.names(all.get("y/**/*.txt")));
+        } finally {
+            classLoader.close();
+        }
+    }
+
+    @Test
+    public void loadsDuplicatePatternsOnce() throws IOException {
+        File root = TestSupport.files(folder.newFolder("root"), "x/a.txt", "x/b.txt");
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{root.toURI().toURL()}, null);
+        try {
+            Map<String, List<Resource>> all = new AntLoader(new StdLoader(classLoader)).loadAll(Arrays.asList("x/*.txt", "x/*.txt", "x/c/*"));
+            Assert.assertEquals(Arrays.asList("x/*.txt", "x/c/*"), new ArrayList<String>(all.keySet()));
+            Assert.assertEquals(2, all.get("x/*.txt").size());
+            Assert.assertTrue(all.get("x/c/*").isEmpty());
+        } finally {
+            classLoader.close();
+        }
+    }
+
+    @Test
+    public void keepsHotPlansWhenEvicting() throws IOException {
+        File root = TestSupport.files(folder.newFolder("cache"), "x/a.txt");
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{root.toURI().toURL()}, null);
+        try {
+            AntLoader loader = new AntLoader(new StdLoader(classLoader), 4);
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals(1, Collections.list(loader.load("x/*.txt")).size());
+                Collections.list(loader.load("x/" + i + "/*.txt"));
+            }
+            // 每次淘汰扫描之间都命中过的加载计划不会被淘汰
+            Assert.assertEquals(99, loader.getCacheHits());
+            Assert.assertEquals(101, loader.getCacheMisses());
+            loader.clearCache();
+            Collections.list(loader.load("x/*.txt"));
+            Assert.assertEquals(102, loader.getCacheMisses());
+
+            AntLoader uncached = new AntLoader(new StdLoader(classLoader), 0);
+            Collections.list(uncached.load("x/*.txt"));
+            Collections.list(uncached.load("x/*.txt"));
+            Assert.assertEquals(0, uncached.getCacheHits());
+            Assert.assertEquals(2, uncached.getCacheMisses());
+        } finally {
+            classLoader.close();
+        }
+    }
+
+}
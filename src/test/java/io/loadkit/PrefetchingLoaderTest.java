@@ -0,0 +1,143 @@
+package io.loadkit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 预取资源加载器测试，检查资源的顺序、预取深度的上限、后台异常的传递，
+ * 以及调用者关闭或者放弃资源枚举器之后委派的资源枚举器被释放。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/18 11:50
+ */
+public class PrefetchingLoaderTest {
+
+    /**
+     * 生成指定数量资源的委派加载器，count为负数时无穷无尽，第failAt个资源之前抛出异常
+     */
+    private static class Source extends ResourceLoader {
+        private final int count;
+        private final int failAt;
+        private final AtomicInteger produced = new AtomicInteger();
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        Source(int count, int failAt) {
+            this.count = count;
+            this.failAt = failAt;
+        }
+
+        public Enumeration<Resource> load(String path, boolean recursively, Filter filter) {
+            return new CloseableEnumeration<Resource>() {
+                private int index;
+
+                public boolean hasMoreElements() {
+                    if (index == failAt) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return count < 0 || index < count;
+                }
+
+                public Resource nextElement() {
+                    if (!hasMoreElements()) {
+                        throw new NoSuchElementException();
+                    }
+                    produced.incrementAndGet();
+                    int i = index++;
+                    try {
+                        return new Res("r/" + i, new URL("file:/r/" + i));
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+
+                public void close() {
+                    closed.countDown();
+                }
+            };
+        }
+    }
+
+    @Test
+    public void prefetchesInOrder() throws Exception {
+        Source source = new Source(5000, -1);
+        List<String> names = TestSupport.names(Collections.list(new PrefetchingLoader(source, 16).load("r", true)));
+        Assert.assertEquals(5000, names.size());
+        for (int i = 0; i < names.size(); i++) {
+            Assert.assertEquals("r/" + i, names.get(i));
+        }
+        Assert.assertTrue(source.closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void boundsPrefetchDepth() throws Exception {
+        Source source = new Source(-1, -1);
+        CloseableEnumeration<Resource> resources = (CloseableEnumeration<Resource>) new PrefetchingLoader(source, 8).load("r", true);
+        try {
+            Thread.sleep(300);
+            // 队列已满时后台线程手里最多还有一个等待放入的资源
+            Assert.assertTrue(String.valueOf(source.produced.get()), source.produced.get() <= 9);
+            Assert.assertEquals("r/0", resources.nextElement().getName());
+        } finally {
+            resources.close();
+        }
+        Assert.assertTrue(source.closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void rethrowsPrefetchFailure() throws Exception {
+        Source source = new Source(100, 10);
+        Enumeration<Resource> resources = new PrefetchingLoader(source, 4).load("r", true);
+        List<String> names = new ArrayList<String>();
+        try {
+            while (resources.hasMoreElements()) names.add(resources.nextElement().getName());
+            Assert.fail("the prefetch failure should be rethrown");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("boom", e.getMessage());
+        }
+        // 异常之前预取的资源都已经交给调用者
+        Assert.assertEquals(10, names.size());
+        Assert.assertFalse(resources.hasMoreElements());
+        Assert.assertTrue(source.closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void releasesDelegateOnClose() throws Exception {
+        Source source = new Source(-1, -1);
+        CloseableEnumeration<Resource> resources = (CloseableEnumeration<Resource>) new PrefetchingLoader(source, 4).load("r", true);
+        for (int i = 0; i < 3; i++) resources.nextElement();
+        resources.close();
+        Assert.assertFalse(resources.hasMoreElements());
+        Assert.assertTrue(source.closed.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 在单独的方法中取一个资源之后丢弃资源枚举器，保证调用者的栈上不再引用它
+     */
+    private static void abandon(Source source) throws IOException {
+        Enumeration<Resource> resources = new PrefetchingLoader(source, 4).load("r", true);
+        Assert.assertEquals("r/0", resources.nextElement().getName());
+    }
+
+    @Test
+    public void releasesDelegateOnAbandon() throws Exception {
+        Source source = new Source(-1, -1);
+        abandon(source);
+        for (int i = 0; i < 100 && source.closed.getCount() > 0; i++) {
+            System.gc();
+            source.closed.await(50, TimeUnit.MILLISECONDS);
+        }
+        Assert.assertEquals(0, source.closed.getCount());
+    }
+
+}
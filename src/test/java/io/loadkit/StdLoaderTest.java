@@ -0,0 +1,208 @@
+package io.loadkit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 标准资源加载器测试，检查资源流在根路径之间以及单个根路径内部的拆分，并行过滤JAR包条目的结果与依次过滤一致，
+ * 以及并发扫描根路径时的资源顺序、同时扫描的根路径数量上限和扫描异常的传递。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/18 10:40
+ */
+public class StdLoaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void splitsSingleRootStream() throws Exception {
+        File root = folder.newFolder("root");
+        FileLoaderTest.tree(new File(root, "t"), 4, 2, 8);
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{root.toURI().toURL()}, null);
+        try {
+            StdLoader loader = new StdLoader(classLoader);
+            Set<String> expected = new HashSet<String>(TestSupport.names(Collections.list(loader.load("t", true))));
+            Assert.assertEquals(21 * 8, expected.size());
+            // 拆分出去的部分还在遍历时，先遍历完的部分不能关闭它们共用的目录流
+            for (int i = 0; i < 20; i++) {
+                Set<String> actual = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                Assert.assertTrue(FileLoaderTest.threads(loader.stream("t", true, null), actual) > 1);
+                Assert.assertEquals(expected, actual);
+            }
+        } finally {
+            classLoader.close();
+        }
+    }
+
+    @Test
+    public void filtersJarRootsInParallel() throws Exception {
+        File dir = TestSupport.files(folder.newFolder("dir"), "a/x.txt", "a/b/y.class");
+        List<String> names = new ArrayList<String>();
+        names.add("META-INF/");
+        names.add("a/");
+        for (int i = 0; i < 3000; i++) {
+            names.add("a/" + (i % 7) + "/e" + i + (i % 3 == 0 ? ".class" : ".txt"));
+        }
+        File jar = TestSupport.jar(folder.newFile("big.jar"), names.toArray(new String[0]));
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{dir.toURI().toURL(), jar.toURI().toURL()}, null);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Loader sequential = new StdLoader(classLoader);
+            Loader parallel = Loaders.parallel(classLoader, pool);
+            Filter[] filters = {null, new AntFilter("**/*.class"), new RegexFilter(".*/e1\\d*\\.txt")};
+            for (Filter filter : filters) {
+                for (String path : new String[]{"a", "a/3", ""}) {
+                    List<String> expected = TestSupport.names(Collections.list(sequential.load(path, true, filter)));
+                    List<String> actual = TestSupport.names(Collections.list(parallel.load(path, true, filter)));
+                    Assert.assertEquals(path + " " + filter, expected, actual);
+                }
+            }
+            Assert.assertEquals(3002, Collections.list(parallel.load("", true)).size());
+        } finally {
+            pool.shutdown();
+            classLoader.close();
+        }
+    }
+
+    /**
+     * 创建有多个目录根路径的类加载器，第i个根路径下有"r/i-0.txt"、"r/i-1.txt"和"r/i-2.txt"三个资源
+     */
+    private URLClassLoader roots(int count) throws IOException {
+        URL[] urls = new URL[count];
+        for (int i = 0; i < count; i++) {
+            File root = TestSupport.files(folder.newFolder("root" + i), "r/" + i + "-0.txt", "r/" + i + "-1.txt", "r/" + i + "-2.txt");
+            urls[i] = root.toURI().toURL();
+        }
+        return new URLClassLoader(urls, null);
+    }
+
+    @Test
+    public void scansRootsConcurrentlyInClasspathOrder() throws Exception {
+        URLClassLoader classLoader = roots(6);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<String> expected = TestSupport.names(Collections.list(new StdLoader(classLoader).load("r", false)));
+            Assert.assertEquals(18, expected.size());
+            // 第一个根路径扫描得最慢，按照classpath的顺序返回时依然排在最前面
+            Filter slowFirst = new Filter() {
+                public boolean filtrate(String name, URL url) {
+                    if (name.startsWith("r/0-")) {
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return true;
+                }
+            };
+            Loader ordered = new StdLoader(classLoader, executor, 4, true);
+            Assert.assertEquals(expected, TestSupport.names(Collections.list(ordered.load("r", false, slowFirst))));
+            Loader completed = new StdLoader(classLoader, executor, 4, false);
+            List<String> actual = TestSupport.names(Collections.list(completed.load("r", false, slowFirst)));
+            Assert.assertEquals(new HashSet<String>(expected), new HashSet<String>(actual));
+            Assert.assertEquals(expected.size(), actual.size());
+        } finally {
+            executor.shutdown();
+            classLoader.close();
+        }
+    }
+
+    @Test
+    public void limitsConcurrentRootsAcrossLoads() throws Exception {
+        URLClassLoader classLoader = roots(6);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final AtomicInteger active = new AtomicInteger();
+            final AtomicInteger max = new AtomicInteger();
+            final Filter counting = new Filter() {
+                public boolean filtrate(String name, URL url) {
+                    int now = active.incrementAndGet();
+                    while (true) {
+                        int m = max.get();
+                        if (now <= m || max.compareAndSet(m, now)) break;
+                    }
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        active.decrementAndGet();
+                    }
+                    return true;
+                }
+            };
+            final Loader loader = new StdLoader(classLoader, executor, 2, true);
+            // 两个线程同时加载，共享同一个上限
+            Callable<Integer> load = new Callable<Integer>() {
+                public Integer call() throws Exception {
+                    return Collections.list(loader.load("r", false, counting)).size();
+                }
+            };
+            ExecutorService callers = Executors.newFixedThreadPool(2);
+            try {
+                Future<Integer> a = callers.submit(load);
+                Future<Integer> b = callers.submit(load);
+                Assert.assertEquals(18, a.get().intValue());
+                Assert.assertEquals(18, b.get().intValue());
+            } finally {
+                callers.shutdown();
+            }
+            Assert.assertTrue(String.valueOf(max.get()), max.get() <= 2);
+        } finally {
+            executor.shutdown();
+            classLoader.close();
+        }
+    }
+
+    @Test
+    public void rethrowsScanFailureInOrder() throws Exception {
+        URLClassLoader classLoader = roots(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Filter failing = new Filter() {
+                public boolean filtrate(String name, URL url) {
+                    if (name.startsWith("r/2-")) throw new IllegalStateException("boom");
+                    return true;
+                }
+            };
+            Enumeration<Resource> resources = new StdLoader(classLoader, executor, 4, true).load("r", false, failing);
+            List<String> names = new ArrayList<String>();
+            try {
+                while (resources.hasMoreElements()) names.add(resources.nextElement().getName());
+                Assert.fail("the scan failure should be rethrown");
+            } catch (IllegalStateException e) {
+                // 与依次扫描时一样的异常，可能被文件资源加载器包装过
+                Throwable cause = e;
+                while (cause.getCause() != null && !"boom".equals(cause.getMessage())) cause = cause.getCause();
+                Assert.assertEquals("boom", cause.getMessage());
+            }
+            // 失败的根路径之前的资源都已经返回
+            Assert.assertEquals(6, names.size());
+        } finally {
+            executor.shutdown();
+            classLoader.close();
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+package io.loadkit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 测试公用的方法：随机生成字符串和数据、读取输入流以及在临时目录中生成资源文件。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/18 9:10
+ */
+final class TestSupport {
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private TestSupport() {
+    }
+
+    /**
+     * 由随机数量的随机片段拼接成字符串
+     *
+     * @param random 随机数生成器
+     * @param atoms  片段
+     * @param max    片段数量的上限（包含）
+     * @return 随机字符串
+     */
+    static String random(Random random, String[] atoms, int max) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = random.nextInt(max + 1); i > 0; i--) {
+            builder.append(atoms[random.nextInt(atoms.length)]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 生成一半是少数几个字母、一半是任意字节的随机数据，既能被压缩又不会压缩得过小
+     *
+     * @param random 随机数生成器
+     * @param size   字节数
+     * @return 随机数据
+     */
+    static byte[] bytes(Random random, int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (random.nextBoolean() ? 'a' + random.nextInt(4) : random.nextInt(256));
+        }
+        return content;
+    }
+
+    /**
+     * 读取输入流的全部数据并关闭输入流
+     *
+     * @param in 输入流
+     * @return 全部数据
+     * @throws IOException I/O 异常
+     */
+    static byte[] read(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) >= 0) out.write(buffer, 0, n);
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * 在指定目录下创建文件，文件内容为其名称，以"/"结尾的名称创建为目录
+     *
+     * @param root  根目录
+     * @param names 相对于根目录的名称
+     * @return 根目录
+     * @throws IOException I/O 异常
+     */
+    static File files(File root, String... names) throws IOException {
+        for (String name : names) {
+            File file = new File(root, name);
+            if (name.endsWith("/")) {
+                if (!file.isDirectory() && !file.mkdirs()) {
+                    throw new IOException("can not create directory " + file);
+                }
+                continue;
+            }
+            File parent = file.getParentFile();
+            if (!parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("can not create directory " + parent);
+            }
+            OutputStream out = new FileOutputStream(file);
+            try {
+                out.write(name.getBytes(UTF_8));
+            } finally {
+                out.close();
+            }
+        }
+        return root;
+    }
+
+    /**
+     * 生成JAR包，条目内容为其名称，以"/"结尾的名称为目录条目，不会自动补充目录条目
+     *
+     * @param file  JAR包文件
+     * @param names 条目名称
+     * @return JAR包文件
+     * @throws IOException I/O 异常
+     */
+    static File jar(File file, String... names) throws IOException {
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+        try {
+            for (String name : names) {
+                out.putNextEntry(new ZipEntry(name));
+                if (!name.endsWith("/")) out.write(name.getBytes(UTF_8));
+                out.closeEntry();
+            }
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    /**
+     * 获取资源的名称列表
+     *
+     * @param resources 资源
+     * @return 名称列表
+     */
+    static List<String> names(Collection<Resource> resources) {
+        List<String> names = new ArrayList<String>();
+        for (Resource resource : resources) names.add(resource.getName());
+        return names;
+    }
+
+}
@@ -0,0 +1,280 @@
+package io.loadkit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * ZIP包中央目录测试，生成条目数量超过65535的Zip64格式、前面附加了数据以及包含重复条目名称的JAR包，
+ * 以{@link JarFile}作为基准逐字节比较条目数据，并比较两种模式的{@link JarLoader}加载的资源。
+ *
+ * @author Payne 646742615@qq.com
+ * 2026/10/17 21:50
+ */
+public class ZipDirectoryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 生成条目数据，前面的条目有较大的数据，跨越多次读取以及解压缓冲区的边界
+     */
+    private static byte[] content(Random random, int index) {
+        return TestSupport.bytes(random, index < 16 ? random.nextInt(100000) : random.nextInt(64));
+    }
+
+    /**
+     * 生成JAR包，条目交替使用STORED和DEFLATED方式存储
+     */
+    private static void write(OutputStream out, List<String> names, Random random) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            byte[] content = name.endsWith("/") ? new byte[0] : content(random, i);
+            ZipEntry entry = new ZipEntry(name);
+            if (i % 2 == 0) {
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(content.length);
+                entry.setCompressedSize(content.length);
+                entry.setCrc(crc.getValue());
+            }
+            zip.putNextEntry(entry);
+            zip.write(content);
+            zip.closeEntry();
+        }
+        zip.close();
+    }
+
+    private File jar(String file, List<String> names, byte[] prefix) throws IOException {
+        File jar = folder.newFile(file);
+        OutputStream out = new FileOutputStream(jar);
+        try {
+            out.write(prefix);
+            write(out, names, new Random(names.size()));
+        } finally {
+            out.close();
+        }
+        return jar;
+    }
+
+    private static List<String> names() {
+        return new ArrayList<String>(Arrays.asList(
+                "META-INF/", "META-INF/MANIFEST.MF", "a/", "a/b.txt", "a/b", "a/b/c.txt", "a/bc/d.txt",
+                "x.txt", "a/b/c/d/e.class", "中文/名称.txt", "é/ü.class", "a/c.txt"));
+    }
+
+    /**
+     * 以{@link JarFile}为基准逐字节比较所有条目的数据，包括逐字节读取以及{@link InputStream#available()}
+     */
+    private static void assertSameEntries(File file, int step) throws IOException {
+        JarFile jarFile = new JarFile(file, false);
+        ZipDirectory directory = ZipDirectory.open(file);
+        try {
+            int count = 0;
+            for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements(); ) {
+                JarEntry entry = entries.nextElement();
+                if (count++ % step != 0) {
+                    continue;
+                }
+                int record = directory.find(entry.getName());
+                Assert.assertTrue(entry.getName(), record >= 0);
+                Assert.assertEquals(entry.getName(), entry.isDirectory(), directory.isDirectory(record));
+                byte[] expected = TestSupport.read(jarFile.getInputStream(jarFile.getJarEntry(entry.getName())));
+                Assert.assertArrayEquals(entry.getName(), expected, TestSupport.read(directory.getInputStream(record)));
+                InputStream in = directory.getInputStream(record);
+                try {
+                    Assert.assertEquals(entry.getName(), expected.length, in.available());
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    int b;
+                    while ((b = in.read()) >= 0) out.write(b);
+                    Assert.assertArrayEquals(entry.getName(), expected, out.toByteArray());
+                } finally {
+                    in.close();
+                }
+            }
+            Assert.assertEquals(-1, directory.find("no/such/entry"));
+        } finally {
+            directory.close();
+            jarFile.close();
+        }
+    }
+
+    /**
+     * 比较两种模式的{@link JarLoader}在不同路径和过滤器下加载的资源名称和数据
+     */
+    private static void assertSameLoads(File file) throws IOException {
+        JarLoader plain = new JarLoader(file, false);
+        JarLoader mapped = new JarLoader(file, true);
+        try {
+            String[] paths = {"", "a", "a/b", "META-INF", "中文", "p1", "p1/s2"};
+            Filter[] filters = {null, new AntFilter("**/*.class"), new AntFilter("a/**/*.txt"), new AntFilter("p1/**/e1*"),
+                    new AllFilter(new AntFilter("**/*.txt"), new RegexFilter(".*c.*")),
+                    new AnyFilter(new AntFilter("*.txt"), new AntFilter("META-INF/**")),
+                    new AnyFilter(new AntFilter("**/*.class"), new RegexFilter(".*\\.MF"))};
+            for (String path : paths) {
+                for (boolean recursively : new boolean[]{false, true}) {
+                    for (Filter filter : filters) {
+                        List<Resource> expected = Collections.list(plain.load(path, recursively, filter));
+                        List<Resource> actual = Collections.list(mapped.load(path, recursively, filter));
+                        String message = path + " " + recursively + " " + filter;
+                        Assert.assertEquals(message, TestSupport.names(expected), TestSupport.names(actual));
+                        for (int i = 0; i < expected.size() && i < 50; i++) {
+                            Assert.assertArrayEquals(message, TestSupport.read(expected.get(i).getInputStream()), TestSupport.read(actual.get(i).getInputStream()));
+                        }
+                    }
+                }
+            }
+        } finally {
+            mapped.close();
+            plain.close();
+        }
+    }
+
+    @Test
+    public void readsPlainJar() throws IOException {
+        File file = jar("plain.jar", names(), new byte[0]);
+        assertSameEntries(file, 1);
+        assertSameLoads(file);
+    }
+
+    @Test
+    public void readsPrefixedJar() throws IOException {
+        byte[] prefix = "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes(TestSupport.UTF_8);
+        File file = jar("prefixed.jar", names(), prefix);
+        assertSameEntries(file, 1);
+        assertSameLoads(file);
+    }
+
+    @Test
+    public void readsZip64Jar() throws IOException {
+        List<String> names = names();
+        for (int i = 0; names.size() <= 0xFFFF; i++) {
+            names.add("p" + i % 7 + "/s" + i % 13 + "/e" + i + (i % 3 == 0 ? ".class" : ".txt"));
+        }
+        File file = jar("zip64.jar", names, new byte[0]);
+        ZipDirectory directory = ZipDirectory.open(file);
+        try {
+            Assert.assertEquals(names.size(), directory.size());
+        } finally {
+            directory.close();
+        }
+        assertSameEntries(file, 97);
+        assertSameLoads(file);
+    }
+
+    @Test
+    public void resolvesDuplicateNamesLikeJarFile() throws IOException {
+        // ZipOutputStream不允许重复的条目，先写入名称等长的不同条目，再把名称改成相同的
+        File file = jar("duplicate.jar", names(), new byte[0]);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        byte[] from = "a/c.txt".getBytes(TestSupport.UTF_8);
+        byte[] to = "a/b.txt".getBytes(TestSupport.UTF_8);
+        int replaced = 0;
+        for (int i = 0; i + from.length <= bytes.length; i++) {
+            if (ByteBuffer.wrap(bytes, i, from.length).equals(ByteBuffer.wrap(from))) {
+                System.arraycopy(to, 0, bytes, i, to.length);
+                replaced++;
+            }
+        }
+        Assert.assertEquals(2, replaced);
+        Files.write(file.toPath(), bytes);
+        assertSameEntries(file, 1);
+        assertSameLoads(file);
+        assertIndexedRecords(file);
+    }
+
+    /**
+     * 索引中保留的记录位置必须与按名称查找的结果一致，包括只保留最后一个记录的重复条目
+     */
+    private static void assertIndexedRecords(File file) throws IOException {
+        ZipDirectory directory = ZipDirectory.open(file);
+        try {
+            for (String path : new String[]{"", "a"}) {
+                JarIndex index = directory.index(path, true, new AntFilter("**"));
+                Assert.assertTrue(index.size() > 0);
+                for (int i = 0; i < index.size(); i++) {
+                    Assert.assertEquals(index.get(i), directory.find(index.get(i)), index.record(i));
+                }
+            }
+        } finally {
+            directory.close();
+        }
+    }
+
+    @Test
+    public void keepsRecordsInIndex() throws IOException {
+        assertIndexedRecords(jar("records.jar", names(), new byte[0]));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsRecordOverrunningCentralDirectory() throws IOException {
+        File file = jar("corrupt.jar", names(), new byte[0]);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int last = -1;
+        for (int i = 0; i + 4 <= bytes.length; i++) {
+            if (buffer.getInt(i) == 0x02014b50) last = i;
+        }
+        // 把最后一个记录的注释长度改成超出中央目录的长度
+        buffer.putShort(last + 32, (short) 4096);
+        Files.write(file.toPath(), bytes);
+        ZipDirectory directory = ZipDirectory.open(file);
+        try {
+            for (int record = directory.first(); record >= 0; record = directory.next(record)) {
+                directory.name(record);
+            }
+        } finally {
+            directory.close();
+        }
+    }
+
+    @Test
+    public void closesOwnedDirectoryOnly() throws IOException {
+        File file = jar("owned.jar", names(), new byte[0]);
+        ZipDirectory directory = ZipDirectory.open(file);
+        try {
+            URL context = new URL("jar:" + file.toURI().toURL() + "!/");
+            Resource resource = Loaders.jar(context, directory).load("x.txt", false).nextElement();
+            JarLoader loader = new JarLoader(context, directory);
+            loader.close();
+            TestSupport.read(resource.getInputStream());
+        } finally {
+            directory.close();
+        }
+        JarLoader owner = Loaders.jar(file, true);
+        Resource resource = owner.load("x.txt", false).nextElement();
+        owner.close();
+        owner.close();
+        try {
+            TestSupport.read(resource.getInputStream());
+            Assert.fail("the owned directory should have been closed");
+        } catch (IOException expected) {
+            // 加载器关闭之后自己打开的中央目录也被关闭
+        }
+    }
+
+}